@@ -0,0 +1,51 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+
+import java.util.List;
+
+/**
+ * Builds a populated map for the benchmarks without any display attached.
+ */
+final class BenchmarkWorld {
+    final WorldConfig config;
+    final AbstractWorldMap map;
+    final SimulationHelper helper;
+
+    BenchmarkWorld(int mapSize, int population, EMapVariant mapVariant) {
+        this(mapSize, population, mapVariant, false);
+    }
+
+    BenchmarkWorld(int mapSize, int population, EMapVariant mapVariant, boolean populationStore) {
+        this.config = new WorldConfig.Builder()
+                .mapWidth(mapSize)
+                .mapHeight(mapSize)
+                .mapVariant(mapVariant)
+                .initialPlantCount(mapSize * mapSize / 5)
+                .plantEnergy(10)
+                .dailyGrassGrowth(mapSize)
+                .initialAnimalCount(population)
+                .initialAnimalEnergy(100)
+                .energyToReproduce(30)
+                .parentEnergyCost(10)
+                .minMutations(0)
+                .maxMutations(2)
+                .genomeLength(16)
+                .fireMaxAge(3)
+                .fireFreq(5)
+                .epochThreads(1)
+                .seed(42)
+                .populationStore(populationStore)
+                .build();
+        this.map = new MapBuilder().createMap(config, List.of());
+        this.helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(population);
+    }
+
+    /**
+     * Stops the threads of the helper, a benchmark building a world per iteration has to call it.
+     */
+    void close() {
+        helper.close();
+    }
+}
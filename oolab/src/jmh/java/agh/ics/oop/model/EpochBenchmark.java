@@ -0,0 +1,56 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole epochs of {@link SimulationHelper#runEpoch()}, each of its phases on its own is in {@link PhaseBenchmark}.
+ * The map is populated afresh every {@link #EPOCHS_PER_WORLD} epochs outside the timing,
+ * so the numbers do not drift as the population dies out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EpochBenchmark {
+
+    static final int EPOCHS_PER_WORLD = 20;
+
+    @Param({"50", "200"})
+    public int mapSize;
+
+    @Param({"100", "2000"})
+    public int population;
+
+    @Param({"false", "true"})
+    public boolean populationStore;
+
+    private BenchmarkWorld world;
+    private int epochs;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = new BenchmarkWorld(mapSize, population, EMapVariant.STANDARD, populationStore);
+        epochs = 0;
+    }
+
+    @TearDown(Level.Invocation)
+    public void renewWorld() {
+        if (++epochs == EPOCHS_PER_WORLD) {
+            tearDown();
+            setUp();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    public AbstractWorldMap runEpoch() {
+        world.helper.runEpoch();
+        return world.map;
+    }
+}
@@ -0,0 +1,59 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fire spreading over a map that has been burning for a few epochs already.
+ * The map is populated and set on fire afresh every {@link #SPREADS_PER_WORLD} spreads outside the timing,
+ * so the fire does not burn out or cover the whole map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FireBenchmark {
+
+    private static final int BURNING_EPOCHS = 10;
+    private static final int SPREADS_PER_WORLD = 20;
+
+    @Param({"50", "200"})
+    public int mapSize;
+
+    @Param({"100", "2000"})
+    public int population;
+
+    private BenchmarkWorld world;
+    private FireWorldMap map;
+    private int spreads;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = new BenchmarkWorld(mapSize, population, EMapVariant.FIRE);
+        map = (FireWorldMap) world.map;
+        for (int i = 0; i < BURNING_EPOCHS; i++) {
+            map.spreadFire(world.config.getFireMaxAge(), i % world.config.getFireFreq() == 0);
+        }
+        spreads = 0;
+    }
+
+    @TearDown(Level.Invocation)
+    public void renewWorld() {
+        if (++spreads == SPREADS_PER_WORLD) {
+            tearDown();
+            setUp();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    public int spreadFire() {
+        map.spreadFire(world.config.getFireMaxAge(), true);
+        return map.getFireCount();
+    }
+}
@@ -0,0 +1,30 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GenomeBenchmark {
+
+    private Animal animal1;
+    private Animal animal2;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() {
+        BenchmarkWorld world = new BenchmarkWorld(10, 2, EMapVariant.STANDARD);
+        animal1 = world.map.getAllAnimals().get(0);
+        animal2 = world.map.getAllAnimals().get(1);
+    }
+
+    @Benchmark
+    public Genome reproductionGenome() {
+        return animal1.getGenome().reproductionGenome(animal1, animal2, random);
+    }
+}
@@ -0,0 +1,42 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spawning a day's worth of grass; the grass from the previous invocation is removed first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GrassSpawnerBenchmark {
+
+    @Param({"50", "200"})
+    public int mapSize;
+
+    @Param({"100", "2000"})
+    public int population;
+
+    private BenchmarkWorld world;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = new BenchmarkWorld(mapSize, population, EMapVariant.STANDARD);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearGrass() {
+        for (Vector2d position : new ArrayList<>(world.map.getGrassesMap().keySet())) {
+            world.map.removeGrass(position);
+        }
+    }
+
+    @Benchmark
+    public int spawnGrass() {
+        world.map.getGrassSpawner().spawnGrass(world.config.getDailyGrassGrowth());
+        return world.map.getGrassCount();
+    }
+}
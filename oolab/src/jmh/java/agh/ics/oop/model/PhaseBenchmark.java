@@ -0,0 +1,103 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EEpochPhase;
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each phase of {@link SimulationHelper#runEpoch()} on its own. Every call goes through a whole epoch:
+ * the earlier phases run before it and the later ones after it outside the timing, so the timed phase
+ * finds the map in the state a real epoch leaves it in, e.g. grass to eat and animals that ran out of energy.
+ * The map is populated afresh every {@link EpochBenchmark#EPOCHS_PER_WORLD} epochs, like in {@link EpochBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhaseBenchmark {
+
+    // phases of an epoch on a standard map in the order they run
+    private static final EEpochPhase[] PHASES = {
+            EEpochPhase.REMOVE_DEAD, EEpochPhase.MOVE, EEpochPhase.EAT,
+            EEpochPhase.REPRODUCE, EEpochPhase.SPAWN_GRASS, EEpochPhase.STATS
+    };
+
+    @Param({"REMOVE_DEAD", "MOVE", "EAT", "REPRODUCE", "SPAWN_GRASS", "STATS"})
+    public EEpochPhase phase;
+
+    @Param({"50", "200"})
+    public int mapSize;
+
+    @Param({"100", "2000"})
+    public int population;
+
+    @Param({"false", "true"})
+    public boolean populationStore;
+
+    private BenchmarkWorld world;
+    private int epochs;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = new BenchmarkWorld(mapSize, population, EMapVariant.STANDARD, populationStore);
+        epochs = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void runEarlierPhases() {
+        for (EEpochPhase earlier : PHASES) {
+            if (earlier == phase) {
+                return;
+            }
+            run(earlier);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void runLaterPhases() {
+        boolean later = false;
+        for (EEpochPhase next : PHASES) {
+            if (later) {
+                run(next);
+            }
+            later |= next == phase;
+        }
+        if (++epochs == EpochBenchmark.EPOCHS_PER_WORLD) {
+            tearDown();
+            setUp();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    public int runPhase() {
+        return run(phase);
+    }
+
+    private int run(EEpochPhase step) {
+        SimulationHelper helper = world.helper;
+        switch (step) {
+            case REMOVE_DEAD -> {
+                return helper.removeDeadAnimals();
+            }
+            case MOVE -> {
+                return helper.moveAnimals();
+            }
+            case EAT -> {
+                return helper.eatGrass(world.map.getAnimalsMap(), world.map.getGrassesMap());
+            }
+            case REPRODUCE -> {
+                return helper.reproduceAnimals(world.map.getAnimalsMap());
+            }
+            case SPAWN_GRASS -> helper.spawnGrass(world.config.getDailyGrassGrowth());
+            case STATS -> helper.gatherStats();
+            default -> throw new IllegalArgumentException("Not a phase of a standard map: " + step);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,37 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ties on a single field, from the usual couple of animals up to a crowded cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TieBreakerBenchmark {
+
+    @Param({"2", "8", "64"})
+    public int population;
+
+    private List<Animal> animals;
+
+    private final TieBreaker tieBreaker = new TieBreaker(new SplittableRandom(42));
+
+    @Setup
+    public void setUp() {
+        BenchmarkWorld world = new BenchmarkWorld(10, population, EMapVariant.STANDARD);
+        animals = new ArrayList<>(world.map.getAllAnimals());
+    }
+
+    @Benchmark
+    public Animal selectTopTwo() {
+        tieBreaker.selectTopTwo(animals);
+        return tieBreaker.getSecond();
+    }
+}
@@ -0,0 +1,32 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorldObserverBenchmark {
+
+    @Param({"50", "200"})
+    public int mapSize;
+
+    @Param({"100", "2000"})
+    public int population;
+
+    private WorldObserver observer;
+
+    @Setup
+    public void setUp() {
+        BenchmarkWorld world = new BenchmarkWorld(mapSize, population, EMapVariant.STANDARD);
+        observer = world.map.wObserver;
+    }
+
+    @Benchmark
+    public WorldObserver update() {
+        observer.update();
+        return observer;
+    }
+}
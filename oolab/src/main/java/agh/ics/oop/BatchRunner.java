@@ -0,0 +1,112 @@
+package agh.ics.oop;
+
+import agh.ics.oop.model.WorldConfig;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless entry point running many simulations at full speed, without JavaFX windows or map dumps.
+ * Usage: {@code BatchRunner <configFile> <epochs> [simulations] [threads] [outputDir]}.
+ * Every simulation stops after the given number of epochs or when all animals die,
+ * its statistics are written to {@code outputDir/simulation_<n>.csv}, one line per epoch.
+ * With a {@code seed} in the config the whole batch is reproducible, every simulation gets its own split of it.
+ * With {@code metricsEnabled=true} in the config the phase metrics also go to {@code simulation_<n>_metrics.json}.
+ */
+public class BatchRunner {
+
+    public static void main(String[] args) {
+        try {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Usage: BatchRunner <configFile> <epochs> [simulations] [threads] [outputDir]");
+            }
+            WorldConfig config = WorldConfig.loadFromFile(args[0]);
+            int epochs = parsePositive(args[1], "epochs");
+            int simulations = args.length > 2 ? parsePositive(args[2], "simulations") : 1;
+            int threads = args.length > 3 ? parsePositive(args[3], "threads") : Runtime.getRuntime().availableProcessors();
+            Path outputDir = Path.of(args.length > 4 ? args[4] : "batch_output");
+
+            new BatchRunner().run(config, epochs, simulations, threads, outputDir);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static int parsePositive(String value, String name) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number, got " + value);
+        }
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(name + " must be positive.");
+        }
+        return parsed;
+    }
+
+    public void run(WorldConfig config, int epochs, int simulations, int threads, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        ExecutorService threadPool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            SplittableRandom random = config.createRandom();
+            for (int i = 0; i < simulations; i++) {
+                Path statsFile = outputDir.resolve("simulation_" + i + ".csv");
+                SplittableRandom simulationRandom = random.split();
+                results.add(threadPool.submit(() -> runSimulation(config, epochs, statsFile, simulationRandom)));
+            }
+            for (int i = 0; i < simulations; i++) {
+                System.out.println("Simulation " + i + " finished after " + results.get(i).get() + " epochs");
+            }
+        } catch (Exception e) {
+            throw new IOException("Batch run failed: " + e.getMessage(), e);
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return number of epochs actually simulated.
+     */
+    public int runSimulation(WorldConfig config, int epochs, Path statsFile, SplittableRandom random) throws IOException {
+        Simulation simulation = new Simulation(config, List.of(), random);
+        try (simulation; BufferedWriter writer = Files.newBufferedWriter(statsFile)) {
+            List<String> columns = null;
+            int epoch = 0;
+            while (epoch < epochs && !simulation.isExtinct()) {
+                simulation.step();
+                epoch++;
+
+                Map<String, Object> stats = simulation.getStats();
+                if (columns == null) {
+                    columns = new ArrayList<>(stats.keySet());
+                    writer.write(String.join(",", columns));
+                    writer.newLine();
+                }
+                List<String> values = new ArrayList<>(columns.size());
+                for (String column : columns) {
+                    Object value = stats.get(column);
+                    values.add(value != null ? value.toString() : "");
+                }
+                writer.write(String.join(",", values));
+                writer.newLine();
+            }
+            if (simulation.getMetrics().isEnabled()) {
+                String fileName = statsFile.getFileName().toString().replace(".csv", "_metrics.json");
+                Files.writeString(statsFile.resolveSibling(fileName), simulation.getMetrics().toJson());
+            }
+            return epoch;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package agh.ics.oop;
 
 import agh.ics.oop.model.AbstractWorldMap;
 import agh.ics.oop.model.Animal;
+import agh.ics.oop.model.Checkpoint;
+import agh.ics.oop.model.EpochMetrics;
 import agh.ics.oop.model.MapBuilder;
 import agh.ics.oop.model.Vector2d;
 import agh.ics.oop.model.WorldConfig;
@@ -9,31 +11,72 @@ import agh.ics.oop.model.util.IncorrectPositionException;
 import agh.ics.oop.model.SimulationHelper;
 import agh.ics.oop.model.MapChangeListener;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 
-public class Simulation implements Runnable{
+public class Simulation implements Runnable, AutoCloseable {
     private List<Vector2d> starting_positions;
     private AbstractWorldMap map;
     protected SimulationHelper simulationHelper;
     private final WorldConfig config;
     private final MapBuilder mapBuilder = new MapBuilder();
+    private final List<MapChangeListener> observers;
+    // every random decision of the simulation is drawn from this source
+    private final SplittableRandom random;
+    private boolean closed = false;
 
     public List<Animal> getAnimals() {
         return map.getAllAnimals();
     }
 
     public Simulation(WorldConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * @param observers observers attached to the map from the start, null attaches the default
+     *                  console and file displays, an empty list runs the simulation without any output.
+     */
+    public Simulation(WorldConfig config, List<MapChangeListener> observers) {
+        this(config, observers, config.createRandom());
+    }
+
+    /**
+     * @param random random source of the simulation, runs with equally seeded sources are identical.
+     */
+    public Simulation(WorldConfig config, List<MapChangeListener> observers, SplittableRandom random) {
         this.config = config;
+        this.observers = observers;
+        this.random = random;
         init();
     }
 
+    /**
+     * Resumes a simulation from a checkpoint written while it ran, see {@link Checkpoint}.
+     * The resumed run goes on exactly like the original one, on a map with a new id.
+     *
+     * @param observers observers attached to the map, as in {@link #Simulation(WorldConfig, List)}.
+     */
+    public Simulation(Path checkpointFile, List<MapChangeListener> observers) throws IOException {
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        this.config = checkpoint.getConfig();
+        this.observers = observers;
+        this.random = new SplittableRandom(checkpoint.getSeed());
+        this.map = this.mapBuilder.createMap(this.config, this.observers, this.random);
+        this.simulationHelper = new SimulationHelper(this.map, config);
+        this.simulationHelper.resume(checkpoint);
+        this.starting_positions = List.of();
+    }
+
     public void addObserver(MapChangeListener observer) {
         this.map.addObserver(observer);
     }
 
     private void init(){
-        this.map = this.mapBuilder.createMap(this.config);
+        this.map = this.mapBuilder.createMap(this.config, this.observers, this.random);
         this.simulationHelper = new SimulationHelper(this.map, config);
         this.starting_positions = this.simulationHelper.generateStartingPositions(this.config.getInitialAnimalCount());
     }
@@ -42,16 +85,40 @@ public class Simulation implements Runnable{
         while(!this.map.getAllAnimals().isEmpty()){
             this.simulationHelper.runEpoch();;
         }
+        close();
+    }
+
+    /**
+     * Closes the files and threads of the simulation, called by {@link #run()} once every animal died.
+     * Must be called from the thread stepping the simulation, or once it stopped, closing again does nothing.
+     */
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.simulationHelper.close();
+        }
     }
 
     public void step(){
         this.simulationHelper.runEpoch();
     }
 
+    public boolean isExtinct() {
+        return this.map.getAllAnimals().isEmpty();
+    }
+
     public Map<String, Object> getStats(){
         return this.simulationHelper.getStats();
     }
 
+    /**
+     * Timings and counters of the epoch phases, recorded only when enabled in the config or at runtime.
+     */
+    public EpochMetrics getMetrics(){
+        return this.simulationHelper.getMetrics();
+    }
+
     public final AbstractWorldMap getMap(){
         return this.map;
     }
@@ -1,4 +1,5 @@
 package agh.ics.oop;
+import agh.ics.oop.model.WorldConfig;
 import agh.ics.oop.presenter.SimulationPresenter;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -7,12 +8,27 @@ import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 import java.io.IOException;
 public class SimulationApp extends Application {
+    private final WorldConfig config;
+
+    public SimulationApp() {
+        this(new WorldConfig.Builder().build());
+    }
+
+    /**
+     * @param config config of the simulations started in the window.
+     */
+    public SimulationApp(WorldConfig config) {
+        this.config = config;
+    }
 
     public void start(Stage primaryStage) throws IOException {
         FXMLLoader loader = new FXMLLoader();
         loader.setLocation(getClass().getClassLoader().getResource("simulation.fxml"));
         BorderPane viewRoot = loader.load();
         SimulationPresenter presenter = loader.getController();
+        presenter.setConfig(config);
+        // the engine thread closes the simulation, so its files are complete when the window is gone
+        primaryStage.setOnHidden(event -> presenter.stop());
         configureStage(primaryStage, viewRoot);
 
         primaryStage.setFullScreen(true);
@@ -365,7 +365,7 @@ public class SimulationConfiguration extends Application {
 
             primaryStage.close();
 
-            SimulationApp simulationApp = new SimulationApp();
+            SimulationApp simulationApp = new SimulationApp(builder.build());
             Stage simulationStage = new Stage();
             simulationApp.start(simulationStage);
 
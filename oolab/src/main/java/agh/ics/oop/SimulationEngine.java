@@ -1,5 +1,7 @@
 package agh.ics.oop;
 
+import agh.ics.oop.model.WorldConfig;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -14,7 +16,15 @@ public class SimulationEngine {
 
 
     public SimulationEngine(List<Simulation> simulations) {
+        this(simulations, new WorldConfig.Builder().build());
+    }
+
+    /**
+     * @param config config giving the tick mode and rate of {@link #run()}.
+     */
+    public SimulationEngine(List<Simulation> simulations, WorldConfig config) {
         this.simulations = simulations;
+        this.scheduler = new TickScheduler(config.getTickMode(), config.getTickRate());
     }
 
     public void runSync() {
@@ -56,48 +66,46 @@ public class SimulationEngine {
     }
 
 
-    private boolean isRunning = true;
-    private final Object lock = new Object();
+    private final TickScheduler scheduler;
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
 
+    /**
+     * Steps the simulations until the engine is stopped, then closes them on this thread,
+     * so no step is running while their files and threads are closed.
+     */
     public void run() {
-        while (true) {
-            synchronized (lock) {
-                while (!isRunning) {
-                    try {
-                        lock.wait(); // Wait if paused
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
+        try {
+            while (scheduler.awaitNextTick()) {
+                simulateStep();
+                scheduler.tickCompleted();
             }
-            simulateStep();
-
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Simulation simulation : simulations) {
+                simulation.close();
             }
         }
     }
 
-
     public void pause() {
-        synchronized (lock) {
-            isRunning = false;
-        }
+        scheduler.pause();
     }
 
     public void resume() {
-        synchronized (lock) {
-            isRunning = true;
-            lock.notify();
-        }
+        scheduler.resume();
+    }
+
+    public void stop() {
+        scheduler.stop();
     }
 
     private void simulateStep() {
-        System.out.println("Simulating step...");
-        simulations.get(0).step();
+        for (Simulation simulation : simulations) {
+            simulation.step();
+        }
     }
 }
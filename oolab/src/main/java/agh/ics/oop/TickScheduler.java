@@ -0,0 +1,176 @@
+package agh.ics.oop;
+
+import agh.ics.oop.model.variants.ETickMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the simulation loop may run its next epoch.
+ * <ul>
+ *     <li>FIXED_RATE - target number of epochs per second, ticks are scheduled on an absolute
+ *     timeline so the time spent in the epoch itself does not add up as drift,</li>
+ *     <li>MAX_SPEED - never waits,</li>
+ *     <li>FRAME_LOCKED - one epoch per frame signalled by the UI with {@link #signalFrame()}.</li>
+ * </ul>
+ * Pausing, resuming and stopping wake up a waiting loop immediately.
+ */
+public class TickScheduler {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Object lock = new Object();
+    private ETickMode mode;
+    private double targetRate;
+    private boolean paused = false;
+    private boolean stopped = false;
+    private boolean frameReady = false;
+    private long nextTick;
+
+    private long windowStart;
+    private int windowTicks = 0;
+    private volatile double measuredRate = 0;
+
+    public TickScheduler(ETickMode mode, double targetRate) {
+        validateRate(targetRate);
+        this.targetRate = targetRate;
+        this.mode = mode;
+        this.nextTick = System.nanoTime();
+        this.windowStart = this.nextTick;
+    }
+
+    /**
+     * Blocks until the next epoch may start.
+     *
+     * @return false when the scheduler was stopped and the loop should end.
+     */
+    public boolean awaitNextTick() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (stopped) {
+                    return false;
+                }
+                if (paused) {
+                    lock.wait();
+                    continue;
+                }
+                switch (mode) {
+                    case MAX_SPEED -> {
+                        return true;
+                    }
+                    case FRAME_LOCKED -> {
+                        if (frameReady) {
+                            frameReady = false;
+                            return true;
+                        }
+                        lock.wait();
+                    }
+                    case FIXED_RATE -> {
+                        long now = System.nanoTime();
+                        long remaining = nextTick - now;
+                        if (remaining <= 0) {
+                            long period = period();
+                            // after a long stall start a new timeline instead of running a burst of late ticks
+                            nextTick = remaining < -period ? now + period : nextTick + period;
+                            return true;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by the loop after every epoch, used to measure the actual tick rate.
+     */
+    public void tickCompleted() {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            windowTicks++;
+            long elapsed = now - windowStart;
+            if (elapsed >= NANOS_PER_SECOND) {
+                measuredRate = (double) windowTicks * NANOS_PER_SECOND / elapsed;
+                windowTicks = 0;
+                windowStart = now;
+            }
+        }
+    }
+
+    private long period() {
+        return (long) (NANOS_PER_SECOND / targetRate);
+    }
+
+    public void signalFrame() {
+        synchronized (lock) {
+            frameReady = true;
+            lock.notifyAll();
+        }
+    }
+
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+        }
+    }
+
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+            nextTick = System.nanoTime();
+            lock.notifyAll();
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        synchronized (lock) {
+            return paused;
+        }
+    }
+
+    public void setMode(ETickMode mode) {
+        synchronized (lock) {
+            this.mode = mode;
+            this.nextTick = System.nanoTime();
+            lock.notifyAll();
+        }
+    }
+
+    public ETickMode getMode() {
+        synchronized (lock) {
+            return mode;
+        }
+    }
+
+    public void setTargetRate(double targetRate) {
+        validateRate(targetRate);
+        synchronized (lock) {
+            this.targetRate = targetRate;
+            lock.notifyAll();
+        }
+    }
+
+    private static void validateRate(double targetRate) {
+        if (!(targetRate > 0)) {
+            throw new IllegalArgumentException("Target rate must be positive.");
+        }
+    }
+
+    public double getTargetRate() {
+        synchronized (lock) {
+            return targetRate;
+        }
+    }
+
+    /**
+     * @return epochs per second measured over the last full second.
+     */
+    public double getMeasuredRate() {
+        return measuredRate;
+    }
+}
@@ -80,14 +80,9 @@ public class WorldElementBox {
         progressBar.setPrefHeight(5);
         progressBar.setProgress(calculateEnergyProgress(animal));
 
+        // the map is redrawn every epoch, so the bar shows the energy at drawing time
         setEnergyBarColor(progressBar, animal.getEnergy());
 
-        animal.energyProperty().addListener((observable, oldValue, newValue) -> {
-            double progress = calculateEnergyProgress(animal);
-            progressBar.setProgress(progress);
-            setEnergyBarColor(progressBar, newValue.intValue());
-        });
-
         return progressBar;
     }
 
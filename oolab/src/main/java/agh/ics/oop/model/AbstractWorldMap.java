@@ -3,32 +3,54 @@ package agh.ics.oop.model;
 import agh.ics.oop.model.util.Boundary;
 import agh.ics.oop.model.util.IncorrectPositionException;
 import agh.ics.oop.model.util.MapVisualizer;
-import javafx.util.Pair;
+import agh.ics.oop.model.variants.EStorageVariant;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public abstract class AbstractWorldMap extends Globe {
 
-    protected Map<Vector2d, ArrayList<Animal>> animals = new HashMap<>();
+    protected final CellStorage storage;
     protected final MapVisualizer visualizer = new MapVisualizer(this);
     protected Vector2d lowerLeft;
     protected Vector2d upperRight;
-    protected final List<MapChangeListener> observers = new ArrayList<>();
+    // read by the event bus thread
+    protected final List<MapChangeListener> observers = new CopyOnWriteArrayList<>();
     public WorldObserver wObserver;
-    protected final Map<Vector2d, Grass> grasses = new HashMap<>();
+    private PopulationStore population;
+    private MapEventBus eventBus;
     public final Equator equator;
-    protected final GrassSpawner grassSpawner;
-    protected List<Animal> deadAnimals = new ArrayList<>();
+    protected GrassSpawner grassSpawner;
+    protected final FieldCounters fieldCounters;
+    protected DeadAnimalArchive deadAnimals = new DeadAnimalArchive(DeadAnimalArchive.DEFAULT_CAPACITY, null);
     protected final UUID uuid = UUID.randomUUID();
 
     public AbstractWorldMap(int width, int height) {
-        super(new Vector2d(width, height));
+        this(width, height, EStorageVariant.HASH);
+    }
+
+    public AbstractWorldMap(int width, int height, EStorageVariant storageVariant) {
+        this(width, height, storageVariant, new SplittableRandom());
+    }
+
+    public AbstractWorldMap(int width, int height, EStorageVariant storageVariant, SplittableRandom random) {
+        super(new Vector2d(width, height), random);
         this.lowerLeft = new Vector2d(0, 0);
         this.upperRight = new Vector2d(width, height);
+        this.storage = createStorage(storageVariant, width + 1, height + 1);
         this.equator= new Equator(new Vector2d(0, (int)(this.upperRight.getY() * 0.4)), new Vector2d(this.upperRight.getX(), (int)(this.upperRight.getY() * 0.6)));
-        this.grassSpawner = new GrassSpawner(this, this.equator, new RandomPositionGenerator());
+        this.fieldCounters = new FieldCounters(this.storage, this.equator, this::hasObstacle, this.lowerLeft, this.upperRight);
+        this.storage.setListener(this.fieldCounters);
+        this.grassSpawner = new GrassSpawner(this, this.equator, new RandomPositionGenerator(random));
+    }
+
+    private static CellStorage createStorage(EStorageVariant storageVariant, int columns, int rows) {
+        if (storageVariant == EStorageVariant.GRID) {
+            return new GridCellStorage(columns, rows);
+        }
+        return new HashCellStorage();
     }
 
     public void addObserver(MapChangeListener observer) {
@@ -39,12 +61,55 @@ public abstract class AbstractWorldMap extends Globe {
         observers.remove(observer);
     }
 
+    /**
+     * Releases the observers holding resources, e.g. the open file of a {@link FileMapDisplay},
+     * once the map sends no more notifications.
+     */
+    public void closeObservers() {
+        for (MapChangeListener observer : observers) {
+            if (observer instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Failed to close map observer: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells the observers about a change right away, or ends the batch of the event bus when the map has one.
+     */
     protected void notifyObservers(String message) {
+        if (eventBus != null) {
+            eventBus.publish(message);
+            return;
+        }
         for (MapChangeListener observer : observers) {
             observer.mapChanged(this, message);
         }
     }
 
+    /**
+     * @return bus batching the notifications of this map, null when observers are notified right away.
+     */
+    public MapEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Makes the map batch its notifications, must happen before the first epoch.
+     */
+    void useEventBus(MapEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    void reseed(long seed) {
+        super.reseed(seed);
+        this.grassSpawner = new GrassSpawner(this, this.equator, new RandomPositionGenerator(getRandom()));
+    }
+
     public Vector2d getLowerleft() {
         return lowerLeft;
     }
@@ -54,15 +119,23 @@ public abstract class AbstractWorldMap extends Globe {
     }
 
     public List<Animal> getAllAnimals() {
-        return this.animals.values().stream().flatMap(List::stream).toList();
+        return this.storage.allAnimals();
     }
 
     public Map<Vector2d, ArrayList<Animal>> getAllAnimalsWithPositions(){
-        return this.animals;
+        return this.storage.animalsView();
     }
 
     public List<Grass> getGrass() {
-        return new ArrayList<>(this.grasses.values());
+        return new ArrayList<>(this.storage.grassView().values());
+    }
+
+    public int getGrassCount() {
+        return this.storage.grassCount();
+    }
+
+    public CellStorage getStorage() {
+        return this.storage;
     }
 
     public Equator getEquator() {
@@ -70,23 +143,77 @@ public abstract class AbstractWorldMap extends Globe {
     }
 
     public Map<Vector2d, Grass> getGrassesWithPositions() {
-        return this.grasses;
+        return this.storage.grassView();
     }
 
     public void addDeadAnimal(Animal animal) {
+        animal.detach();
+        getLineage().died(animal.getId());
         this.deadAnimals.add(animal);
+        if (wObserver != null) {
+            wObserver.animalDied(animal);
+        }
+        if (eventBus != null) {
+            eventBus.animalDied(animal.getPosition());
+        }
     }
 
+    /**
+     * Puts an animal that has just appeared in the world, e.g. a newborn, on the map.
+     * Animals only changing their position go to the storage directly.
+     */
+    void addNewAnimal(Animal animal) {
+        if (population != null) {
+            animal.attach(population);
+        }
+        storage.addAnimal(animal);
+        if (wObserver != null) {
+            wObserver.animalAdded(animal);
+        }
+        if (eventBus != null) {
+            eventBus.animalBorn(animal.getPosition());
+        }
+    }
+
+    /**
+     * @return store holding the state of the living animals, null when every animal keeps its own state.
+     */
+    PopulationStore getPopulation() {
+        return population;
+    }
+
+    /**
+     * Attaches the animals already on the map to the store, animals added later are attached on arrival.
+     */
+    void usePopulationStore(PopulationStore population) {
+        this.population = population;
+        for (Animal animal : storage.allAnimals()) {
+            animal.attach(population);
+        }
+    }
+
+    /**
+     * @return the most recent dead animals, see {@link DeadAnimalArchive}.
+     */
     public List<Animal> getDeadAnimals() {
+        return this.deadAnimals.getRecent();
+    }
+
+    public DeadAnimalArchive getDeadAnimalArchive() {
         return this.deadAnimals;
     }
 
+    /**
+     * Replaces the archive, must happen before any animal dies.
+     */
+    void useDeadAnimalArchive(DeadAnimalArchive deadAnimals) {
+        this.deadAnimals = deadAnimals;
+    }
+
     @Override
     public boolean place(Animal animal) throws IncorrectPositionException {
         if (this.contains(animal.getPosition())) {
-            ArrayList<Animal> animalsAtPosition = animals.get(animal.getPosition());
-            animalsAtPosition.add(animal);
-            animals.put(animal.getPosition(), animalsAtPosition);
+            addNewAnimal(animal);
             return true;
         } else {
             throw new IncorrectPositionException(animal.getPosition());
@@ -97,12 +224,8 @@ public abstract class AbstractWorldMap extends Globe {
     public void move(Animal animal, MoveDirection direction) {
         Vector2d oldPosition = animal.getPosition();
         // animal.move(direction);
-        ArrayList<Animal> animalsAtOldPosition = animals.get(oldPosition);
-        animalsAtOldPosition.remove(animal);
-        animals.put(oldPosition, animalsAtOldPosition);
-        ArrayList<Animal> animalsAtNewPosition = animals.get(animal.getPosition());
-        animalsAtNewPosition.add(animal);
-        animals.put(animal.getPosition(), animalsAtNewPosition);
+        storage.removeAnimal(oldPosition, animal);
+        storage.addAnimal(animal);
     }
 
     @Override
@@ -114,17 +237,19 @@ public abstract class AbstractWorldMap extends Globe {
     public ArrayList<WorldElement> objectAt(Vector2d position) {
         ArrayList<WorldElement> animalObjects = new ArrayList<>();
         ArrayList<WorldElement> grassObjects = new ArrayList<>();
-        if (animals.get(position) != null)
-            animalObjects.addAll(animals.get(position));
-        if (grasses.get(position) != null)
-            grassObjects.add(grasses.get(position));
+        List<Animal> animalsAtPosition = storage.animalsAt(position);
+        if (animalsAtPosition != null)
+            animalObjects.addAll(animalsAtPosition);
+        Grass grass = storage.grassAt(position);
+        if (grass != null)
+            grassObjects.add(grass);
         return Stream.of(animalObjects, grassObjects).flatMap(List::stream).collect(Collectors.toCollection(ArrayList::new));
     }
 
     public List<WorldElement> getElements() {
         List<WorldElement> elements = new ArrayList<>();
-        animals.values().forEach(elements::addAll);
-        elements.addAll(grasses.values());
+        elements.addAll(storage.allAnimals());
+        elements.addAll(storage.grassView().values());
         return elements;
     }
 
@@ -138,51 +263,39 @@ public abstract class AbstractWorldMap extends Globe {
     }
 
     public boolean hasGrass(Vector2d position) {
-        return grasses.get(position) != null;
+        return storage.grassAt(position) != null;
     }
 
     public void addGrass(Grass grass) {
-        grasses.put(grass.getPosition(), grass);
+        storage.putGrass(grass);
+    }
+
+    public Grass removeGrass(Vector2d position) {
+        return storage.removeGrass(position);
     }
 
     public boolean contains(Vector2d position) {
         return position.follows(lowerLeft) && position.precedes(upperRight);
     }
 
+    /**
+     * Obstacles (like fire) block grass from growing and make the field non-empty.
+     * Subclasses report their changes to {@link #fieldCounters}.
+     */
+    protected boolean hasObstacle(Vector2d position) {
+        return false;
+    }
+
     public int calculateFreeFieldsOutsideEquator(){
-        int freeFields = 0;
-        for (int i = lowerLeft.getX(); i <= upperRight.getX(); i++) {
-            for (int j = lowerLeft.getY(); j <= upperRight.getY(); j++) {
-                if (grasses.get(new Vector2d(i, j)) == null && !this.equator.contains(new Vector2d(i, j))) {
-                    freeFields++;
-                }
-            }
-        }
-        return freeFields;
+        return fieldCounters.getFreeOutsideEquator();
     }
 
     public int calculateFreeFieldsInsideEquator(){
-        int freeFields = 0;
-        for (int i = lowerLeft.getX(); i <= upperRight.getX(); i++) {
-            for (int j = lowerLeft.getY(); j <= upperRight.getY(); j++) {
-                if (grasses.get(new Vector2d(i, j)) == null && this.equator.contains(new Vector2d(i, j))) {
-                    freeFields++;
-                }
-            }
-        }
-        return freeFields;
+        return fieldCounters.getFreeInsideEquator();
     }
 
     public int calculateEmptyFields(){
-        int emptyFields = 0;
-        for (int i = lowerLeft.getX(); i <= upperRight.getX(); i++) {
-            for (int j = lowerLeft.getY(); j <= upperRight.getY(); j++) {
-                if (this.objectAt(new Vector2d(i, j)).size() == 0) {
-                    emptyFields++;
-                }
-            }
-        }
-        return emptyFields;
+        return fieldCounters.getEmptyFields();
     }
 
     @Override
@@ -201,15 +314,15 @@ public abstract class AbstractWorldMap extends Globe {
     }
 
     public Map<Vector2d, ArrayList<Animal>> getAnimalsMap() {
-        return this.animals;
+        return this.storage.animalsView();
     }
 
     public Map<Vector2d, Grass> getGrassesMap() {
-        return this.grasses;
+        return this.storage.grassView();
     }
 
     public List<Animal> getDeadAnimalsList() {
-        return this.deadAnimals;
+        return this.deadAnimals.getRecent();
     }
 
     public GrassSpawner getGrassSpawner() {
@@ -1,7 +1,6 @@
 package agh.ics.oop.model;
 
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
+import java.util.function.IntConsumer;
 
 public class Animal implements WorldElement {
     private Vector2d position;
@@ -13,13 +12,20 @@ public class Animal implements WorldElement {
     private Globe globe;
     private MapDirection direction;
 
-    private IntegerProperty energy;
+    private int energy;
+    // reports energy changes of a living animal to the statistics of its map
+    private WorldObserver observer;
+    // set only for an animal someone watches, e.g. the one tracked in the UI
+    private IntConsumer energyListener;
+    // while attached the position, direction, energy, age and children live in the store, the fields are stale
+    private PopulationStore population;
+    private int slot = -1;
 
     public MapDirection getDirection() {
-        return direction;
+        return population != null ? population.getDirection(slot) : direction;
     }
 
-    private static int idCounter = 0;
+    // given by the map, -1 for an animal created without one
     private int id;
 
     public int getId() {
@@ -27,21 +33,39 @@ public class Animal implements WorldElement {
     }
 
     public void setChildrenCount(int childrenCount) {
-        this.childrenCount = childrenCount;
+        if (population != null) {
+            population.setChildren(slot, childrenCount);
+        } else {
+            this.childrenCount = childrenCount;
+        }
     }
 
     private int childrenCount = 0;
 
     public int getDaysLived() {
-        return daysLived;
+        return population != null ? population.getAge(slot) : daysLived;
     }
 
-    public IntegerProperty energyProperty() {
-        return energy;
+    /**
+     * Sets the listener getting the new energy after every change, null removes it.
+     * It is called on the thread changing the energy, which is a simulation thread.
+     */
+    public void setEnergyListener(IntConsumer energyListener) {
+        this.energyListener = energyListener;
+        if (population != null) {
+            population.watch(this, energyListener != null);
+        }
     }
 
+    /**
+     * @return gene the animal turns by on its next move, reading it does not use it up.
+     */
     public int getCurrentGen() {
-        return genome.getCurrentGene();
+        return genome.getGene(getGeneIndex());
+    }
+
+    int getGeneIndex() {
+        return population != null ? population.getGeneIndex(slot) : genome.getGeneIndex();
     }
 
     public int getPlantsEaten() {
@@ -49,7 +73,7 @@ public class Animal implements WorldElement {
     }
 
     public int getDescendants() {
-        return stats.getDescendants();
+        return globe != null ? globe.getLineage().countDescendants(id) : 0;
     }
 
 
@@ -59,7 +83,13 @@ public class Animal implements WorldElement {
     static private Vector2d border_upperright;
 
     public void setGenome(Genome genome) {
+        if (observer != null) {
+            observer.genomeChanged(this.genome, genome);
+        }
         this.genome = genome;
+        if (population != null) {
+            population.setGenome(slot, genome);
+        }
     }
 
     public void setBorder(Vector2d lowerleft, Vector2d upperright) {
@@ -72,8 +102,8 @@ public class Animal implements WorldElement {
     }
 
     public Animal(Vector2d position, MapDirection direction,WorldConfig config, Globe globe) {
-        this(position,direction,config,Genome.randomGenome(config), globe);
-        this.stats = new AnimalStats(null, null, 0);
+        this(position,direction,config,Genome.randomGenome(config, globe.getRandom()), globe);
+        this.stats = new AnimalStats(0);
     }
 
     public Animal(Vector2d position, MapDirection direction,WorldConfig config,Genome genome, Globe globe) {
@@ -81,35 +111,96 @@ public class Animal implements WorldElement {
         this.direction = direction;
         this.config = config;
         this.genome = genome;
-        this.id = idCounter++;
+        this.id = globe != null ? globe.nextAnimalId() : -1;
+        if (globe != null) {
+            globe.getLineage().born(id, LineageGraph.NO_PARENT, LineageGraph.NO_PARENT);
+        }
 
         this.globe = globe;
-        this.energy = new SimpleIntegerProperty(config.getInitialAnimalEnergy());
+        this.energy = config.getInitialAnimalEnergy();
     }
 
     public Animal(Vector2d position,
                   WorldConfig config,
                   Globe globe,
-                  AnimalStats parent1Stats,
-                  AnimalStats parent2Stats,
+                  Animal parent1,
+                  Animal parent2,
                   int dayOfBirth) {
 
         this.position = position;
         this.config = config;
-        this.id = idCounter++;
+        this.id = globe.nextAnimalId();
+        globe.getLineage().born(id, parent1.getId(), parent2.getId());
         this.globe = globe;
-        this.energy = new SimpleIntegerProperty(config.getInitialAnimalEnergy());
-        this.direction = MapDirection.randomDirection();
-        this.stats = new AnimalStats(parent1Stats, parent2Stats, dayOfBirth);
+        this.energy = config.getInitialAnimalEnergy();
+        this.direction = MapDirection.randomDirection(globe.getRandom());
+        this.stats = new AnimalStats(dayOfBirth);
+
+    }
 
+    /**
+     * Animal read back from a checkpoint, it keeps its id and is not added to the lineage again.
+     */
+    Animal(int id, Vector2d position, MapDirection direction, int energy, int daysLived, int childrenCount,
+           Genome genome, AnimalStats stats, WorldConfig config, Globe globe) {
+        this.id = id;
+        this.position = position;
+        this.direction = direction;
+        this.energy = energy;
+        this.daysLived = daysLived;
+        this.childrenCount = childrenCount;
+        this.genome = genome;
+        this.stats = stats;
+        this.config = config;
+        this.globe = globe;
     }
 
     public Vector2d getPosition() {
-        return position;
+        return population != null ? population.getPosition(slot) : position;
     }
 
     public boolean isAt(Vector2d position) {
-        return this.position.equals(position);
+        return getPosition().equals(position);
+    }
+
+    /**
+     * Moves the state of the animal into a slot of the store, from now on the animal is a view of that slot.
+     */
+    void attach(PopulationStore population) {
+        this.slot = population.add(this);
+        this.population = population;
+        if (energyListener != null) {
+            population.watch(this, true);
+        }
+        this.position = null;
+        this.direction = null;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    void moveToSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Copies the state back from the store and frees the slot, does nothing for an animal that is not attached.
+     */
+    void detach() {
+        if (population == null) {
+            return;
+        }
+        PopulationStore store = population;
+        position = store.getPosition(slot);
+        direction = store.getDirection(slot);
+        daysLived = store.getAge(slot);
+        childrenCount = store.getChildren(slot);
+        energy = store.getEnergy(slot);
+        genome.setGeneIndex(store.getGeneIndex(slot));
+        population = null;
+        store.remove(slot);
+        slot = -1;
     }
 
     // public boolean canMoveTo(Vector2d position) {
@@ -118,24 +209,28 @@ public class Animal implements WorldElement {
     // }
 
     public void move() {
+        if (population != null) {
+            population.move(slot);
+            energyChanged(-1);
+            return;
+        }
         int gene = this.genome.getCurrentGene();
         direction = direction.useGene(gene);
-        Move mv = new Move(position, direction);
-        Move finalMove = globe.nextPosition(mv);
+        long step = globe.nextStep(globe.cellOf(position), direction.ordinal());
 
-        position = finalMove.getPosition();
-        direction = finalMove.getDirection();
+        position = globe.positionOf(Globe.stepCell(step));
+        direction = MapDirection.fromOrdinal(Globe.stepDirection(step));
 
         daysLived++;
-        energy.set(energy.get() - 1);
+        changeEnergy(energy - 1);
     }
 
     public boolean isDead() {
-        return energy.get() <= 0;
+        return getEnergy() <= 0;
     }
 
     public void eatGrass() {
-        energy.set(energy.get() + config.getPlantEnergy());
+        changeEnergy(getEnergy() + config.getPlantEnergy());
         if (this.stats != null) {
             this.stats.eatGrass();
         }
@@ -143,22 +238,22 @@ public class Animal implements WorldElement {
 
 
     public boolean canReproduce() {
-        return energy.get() >= config.getEnergyToReproduce();
+        return getEnergy() >= config.getEnergyToReproduce();
     }
 
     Animal reproduce(Animal partner) {
-        Genome childGenome = new Genome(config).reproductionGenome(this,partner);
-        Animal child = new Animal(position,config, globe, this.stats, partner.stats, daysLived);
+        Genome childGenome = new Genome(config).reproductionGenome(this, partner, globe.getRandom());
+        Animal child = new Animal(getPosition(), config, globe, this, partner, getDaysLived());
         child.setGenome(childGenome);
         this.setEnergy(getEnergy() - config.getEnergyToReproduce());
         partner.setEnergy(partner.getEnergy() - config.getEnergyToReproduce());
         if (this.stats != null) {
-            this.childrenCount++;
-            this.stats.addChild(child.getId());
+            this.setChildrenCount(this.getChildren() + 1);
+            this.stats.addChild();
         }
         if (partner.stats != null) {
-            partner.childrenCount++;
-            partner.stats.addChild(child.getId());
+            partner.setChildrenCount(partner.getChildren() + 1);
+            partner.stats.addChild();
         }
         return child;
     }
@@ -168,19 +263,50 @@ public class Animal implements WorldElement {
     }
 
     public int getEnergy() {
-        return energy.get();
+        return population != null ? population.getEnergy(slot) : energy;
     }
 
     public void setEnergy(int x){
-        this.energy.set(x);
+        changeEnergy(x);
+    }
+
+    private void changeEnergy(int newEnergy) {
+        int delta = newEnergy - getEnergy();
+        if (population != null) {
+            population.setEnergy(slot, newEnergy);
+        } else {
+            energy = newEnergy;
+        }
+        energyChanged(delta);
+    }
+
+    private void energyChanged(int delta) {
+        if (observer != null) {
+            observer.energyChanged(delta);
+        }
+        notifyEnergyListener();
+    }
+
+    void notifyEnergyListener() {
+        if (energyListener != null) {
+            energyListener.accept(getEnergy());
+        }
+    }
+
+    WorldObserver getObserver() {
+        return observer;
+    }
+
+    void setObserver(WorldObserver observer) {
+        this.observer = observer;
     }
 
     public int getLifespan() {
-        return daysLived;
+        return getDaysLived();
     }
 
     public int getChildren() {
-        return childrenCount;
+        return population != null ? population.getChildren(slot) : childrenCount;
     }
 
     public AnimalStats getStats() {
@@ -189,12 +315,12 @@ public class Animal implements WorldElement {
 
     @Override
     public String toString() {
-        return this.direction.toString();
+        return getDirection().toString();
     }
 
     @Override
     public String getResourceName() {
-        switch (direction) {
+        switch (getDirection()) {
             case NORTH: return "0.png";
             case NORTHEAST: return "1.png";
             case EAST: return "2.png";
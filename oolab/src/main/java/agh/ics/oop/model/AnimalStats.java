@@ -3,34 +3,27 @@ package agh.ics.oop.model;
 public class AnimalStats {
 
     private int children = 0;
-    private int descendants = 0;
     private int grassEaten = 0;
     private final int dayOfBirth;
     private int dayOfDeath = -1;
-    private final AnimalStats parent1;
-    private final AnimalStats parent2;
-    private int lastDescendantID = -1; // to prevent double counting of descendants
     private Genome genome;
     private int activeGenome;
 
 
-    public AnimalStats(AnimalStats parent1, AnimalStats parent2, int day) {
-        this.parent1 = parent1;
-        this.parent2 = parent2;
+    // descendants are counted by the LineageGraph of the map, so the stats do not keep the parents alive
+    public AnimalStats(int day) {
         this.dayOfBirth = day;
     }
 
-    public void addDescendant(int id){
-        if(id == this.lastDescendantID) return;
-        this.lastDescendantID = id;
-        this.descendants++;
-    }   
+    // stats of a living animal read back from a checkpoint
+    AnimalStats(int dayOfBirth, int grassEaten, int children) {
+        this.dayOfBirth = dayOfBirth;
+        this.grassEaten = grassEaten;
+        this.children = children;
+    }
 
-    public void addChild(int id){
+    public void addChild(){
         this.children++;
-        this.descendants++;
-        if (this.parent1 != null) this.parent1.addDescendant(id);
-        if (this.parent2 != null) this.parent2.addDescendant(id);
     }
 
     public void eatGrass(){
@@ -41,19 +34,22 @@ public class AnimalStats {
         this.dayOfDeath = day;
     }
 
-    public int getDescendants() {
-        return descendants;
-    }
-
     public int getGrassEaten() {
         return grassEaten;
     }
 
+    public int getChildren() {
+        return children;
+    }
+
+    public int getDayOfBirth() {
+        return dayOfBirth;
+    }
+
 
     public void printAnimalStats(){
         System.out.println("Animal stats:");
         System.out.println("Children: " + this.children);
-        System.out.println("Descendants: " + this.descendants);
         System.out.println("Grass eaten: " + this.grassEaten);
         System.out.println("Day of birth: " + this.dayOfBirth);
         System.out.println("Day of death: " + this.dayOfDeath);
@@ -0,0 +1,78 @@
+package agh.ics.oop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Storage of the map cells contents (animals and grass).
+ * The map talks to its cells only through this interface, so the hash map based
+ * storage and the flat array grid can be swapped without touching the map logic.
+ */
+public interface CellStorage {
+
+    /**
+     * @return animals standing at the given position or null if the cell was never used.
+     */
+    List<Animal> animalsAt(Vector2d position);
+
+    boolean hasAnimals(Vector2d position);
+
+    /**
+     * Puts the animal into the cell matching its current position.
+     */
+    void addAnimal(Animal animal);
+
+    boolean removeAnimal(Vector2d position, Animal animal);
+
+    /**
+     * Removes every animal matching the filter, the filter is called exactly once per animal.
+     */
+    void removeAnimalsIf(Predicate<Animal> filter);
+
+    /**
+     * Empties every cell, the cell lists are kept for the animals put back afterwards.
+     */
+    void clearAnimals();
+
+    /**
+     * Rebuilds the internal tables from the current contents, so the storage iterates exactly like a new
+     * storage filled with the same contents in its current iteration order. Used by checkpoints.
+     */
+    default void rebuild() {
+    }
+
+    List<Animal> allAnimals();
+
+    /**
+     * Adds every animal to the given list, so a caller can reuse one list instead of getting a new one.
+     */
+    void collectAnimals(List<Animal> target);
+
+    Grass grassAt(Vector2d position);
+
+    void putGrass(Grass grass);
+
+    Grass removeGrass(Vector2d position);
+
+    int grassCount();
+
+    /**
+     * Sets the listener notified about grass changes and cells becoming occupied or free.
+     * Changes made through the views are reported as well, but the lists returned by the animals
+     * view are plain lists, so adding or removing animals should go through the storage itself.
+     */
+    void setListener(CellStorageListener listener);
+
+    /**
+     * Map view of the animals, kept for the code that works on positions and lists.
+     * Changes made through the view are written back to the storage.
+     */
+    Map<Vector2d, ArrayList<Animal>> animalsView();
+
+    /**
+     * Map view of the grass, written back to the storage like {@link #animalsView()}.
+     */
+    Map<Vector2d, Grass> grassView();
+}
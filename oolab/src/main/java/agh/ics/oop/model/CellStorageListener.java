@@ -0,0 +1,21 @@
+package agh.ics.oop.model;
+
+/**
+ * Receives the changes of cell contents from a {@link CellStorage}.
+ * Animal events are sent only when a cell becomes occupied or becomes free,
+ * not for every single animal entering or leaving it.
+ */
+public interface CellStorageListener {
+
+    default void grassAdded(Vector2d position) {
+    }
+
+    default void grassRemoved(Vector2d position) {
+    }
+
+    default void animalsArrived(Vector2d position) {
+    }
+
+    default void animalsLeft(Vector2d position) {
+    }
+}
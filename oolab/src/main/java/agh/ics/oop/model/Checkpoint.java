@@ -0,0 +1,218 @@
+package agh.ics.oop.model;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static agh.ics.oop.model.SnapshotFormat.*;
+
+/**
+ * State of a running simulation at the end of an epoch, written by {@link CheckpointWriter}.
+ * <pre>
+ * header: magic int, version short, varint option count and (key, value) strings of the {@link WorldConfig},
+ *         epoch int, seed long
+ * map:    next animal id, the {@link LineageGraph}, totals of the {@link DeadAnimalArchive},
+ *         animals in storage order (id, cell, direction, energy, age, children, gene index, slot, genes, stats),
+ *         grass cells in storage order, the {@link FireFront} of a fire map and the {@link FieldCounters}
+ * </pre>
+ * Before the map is captured {@link SimulationHelper} makes every order the map keeps depend only on its contents:
+ * the storage tables are rebuilt, the population store is compacted, the genome pool is renumbered and the random
+ * source is reseeded with the seed saved here. A new map filled in the saved orders is then in the same state,
+ * so a resumed run goes on exactly like the original one.
+ */
+public final class Checkpoint {
+    static final int MAGIC = 0x43484B50;
+    static final short VERSION = 1;
+
+    private final WorldConfig config;
+    private final int epoch;
+    private final long seed;
+    // the map part, read by restore
+    private final ByteBuffer body;
+
+    private Checkpoint(WorldConfig config, int epoch, long seed, ByteBuffer body) {
+        this.config = config;
+        this.epoch = epoch;
+        this.seed = seed;
+        this.body = body;
+    }
+
+    /**
+     * Maps the file and reads its header, the map is read by {@link SimulationHelper#resume(Checkpoint)}.
+     */
+    public static Checkpoint read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + " in " + file);
+            }
+            WorldConfig.Builder builder = new WorldConfig.Builder();
+            int optionCount = getVarInt(buffer);
+            for (int i = 0; i < optionCount; i++) {
+                WorldConfig.set(builder, getString(buffer), getString(buffer));
+            }
+            WorldConfig config = builder.build();
+            int epoch = buffer.getInt();
+            long seed = buffer.getLong();
+            return new Checkpoint(config, epoch, seed, buffer.slice());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Checkpoint ends too early: " + file, e);
+        }
+    }
+
+    /**
+     * Writes the map at the end of the epoch into a new buffer, on the simulation thread.
+     *
+     * @param sizeHint expected size in bytes, the buffer grows when the map does not fit.
+     * @return the checkpoint, ready to be read.
+     */
+    static ByteBuffer capture(AbstractWorldMap map, WorldConfig config, int epoch, long seed, int sizeHint) {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(sizeHint, 1024));
+        while (true) {
+            try {
+                put(buffer, map, config, epoch, seed);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    private static void put(ByteBuffer buffer, AbstractWorldMap map, WorldConfig config, int epoch, long seed) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        Map<String, String> options = config.toValues();
+        putVarInt(buffer, options.size());
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            putString(buffer, option.getKey());
+            putString(buffer, option.getValue());
+        }
+        buffer.putInt(epoch);
+        buffer.putLong(seed);
+
+        buffer.putInt(map.getIssuedAnimalIds());
+        map.getLineage().save(buffer);
+        DeadAnimalArchive dead = map.getDeadAnimalArchive();
+        buffer.putLong(dead.getCount());
+        buffer.putLong(dead.getLifespanSum());
+        buffer.putLong(dead.getChildrenSum());
+
+        List<Animal> animals = map.getAllAnimals();
+        buffer.putInt(animals.size());
+        for (Animal animal : animals) {
+            buffer.putInt(animal.getId());
+            buffer.putInt(map.cellOf(animal.getPosition()));
+            buffer.put((byte) animal.getDirection().ordinal());
+            buffer.putInt(animal.getEnergy());
+            buffer.putInt(animal.getDaysLived());
+            buffer.putInt(animal.getChildren());
+            buffer.putInt(animal.getGeneIndex());
+            buffer.putInt(animal.getSlot());
+            putGenes(buffer, animal.getGenome().getGenome());
+            AnimalStats stats = animal.getStats();
+            buffer.put((byte) (stats != null ? 1 : 0));
+            if (stats != null) {
+                buffer.putInt(stats.getDayOfBirth());
+                buffer.putInt(stats.getGrassEaten());
+                buffer.putInt(stats.getChildren());
+            }
+        }
+
+        buffer.putInt(map.getGrassCount());
+        for (Vector2d position : map.getGrassesWithPositions().keySet()) {
+            buffer.putInt(map.cellOf(position));
+        }
+        if (map instanceof FireWorldMap fireMap) {
+            fireMap.getFront().save(buffer);
+        }
+        map.fieldCounters.save(buffer);
+    }
+
+    /**
+     * Fills a new map, created from {@link #getConfig()} and prepared by a {@link SimulationHelper}, with the saved state.
+     */
+    void restore(AbstractWorldMap map) {
+        ByteBuffer buffer = body.duplicate();
+        map.reseed(seed);
+        map.setIssuedAnimalIds(buffer.getInt());
+        map.getLineage().load(buffer);
+        map.getDeadAnimalArchive().restoreTotals(buffer.getLong(), buffer.getLong(), buffer.getLong());
+
+        Animal[] animals = new Animal[buffer.getInt()];
+        Animal[] bySlot = new Animal[animals.length];
+        for (int i = 0; i < animals.length; i++) {
+            int id = buffer.getInt();
+            Vector2d position = map.positionOf(buffer.getInt());
+            MapDirection direction = MapDirection.fromOrdinal(buffer.get());
+            int energy = buffer.getInt();
+            int daysLived = buffer.getInt();
+            int children = buffer.getInt();
+            int geneIndex = buffer.getInt();
+            int slot = buffer.getInt();
+            Genome genome = Genome.fromGenes(config, getGenes(buffer));
+            genome.setGeneIndex(geneIndex);
+            AnimalStats stats = buffer.get() != 0
+                    ? new AnimalStats(buffer.getInt(), buffer.getInt(), buffer.getInt())
+                    : null;
+            animals[i] = new Animal(id, position, direction, energy, daysLived, children, genome, stats, config, map);
+            if (slot >= 0) {
+                bySlot[slot] = animals[i];
+            }
+        }
+        // the store was compacted, so attaching in slot order gives every animal its old slot
+        PopulationStore population = map.getPopulation();
+        if (population != null) {
+            for (Animal animal : bySlot) {
+                if (animal != null) {
+                    animal.attach(population);
+                }
+            }
+        }
+        for (Animal animal : animals) {
+            map.storage.addAnimal(animal);
+            map.wObserver.animalAdded(animal);
+        }
+
+        int grassCount = buffer.getInt();
+        for (int i = 0; i < grassCount; i++) {
+            map.addGrass(new Grass(map.positionOf(buffer.getInt())));
+        }
+        if (map instanceof FireWorldMap fireMap) {
+            fireMap.getFront().load(buffer);
+        }
+        map.fieldCounters.load(buffer);
+        map.wObserver.rebuildGenomePool();
+        map.wObserver.restoreEpoch(epoch);
+    }
+
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return epoch the checkpoint was taken at the end of.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return seed of the random source from the end of the epoch on.
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,100 @@
+package agh.ics.oop.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the latest {@link Checkpoint} of a running simulation on disk. The simulation thread only copies the map
+ * into a buffer, a writer thread maps a temporary file, copies the buffer into it, forces it to disk and moves it
+ * over the previous checkpoint, so the file always holds a complete checkpoint. One write is in flight at a time,
+ * the next checkpoint waits for it. Like the {@link SnapshotWriter}, errors are reported without stopping the run.
+ */
+public class CheckpointWriter implements AutoCloseable {
+    private final Path file;
+    private final Path tempFile;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending;
+    // size of the last checkpoint, the next one is usually close to it
+    private int lastSize = 64 * 1024;
+    private volatile int written = 0;
+
+    public CheckpointWriter(Path file) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Captures the map at the end of the epoch and writes it in the background.
+     *
+     * @param seed seed the random source of the map was just reseeded with.
+     */
+    public void write(int epoch, AbstractWorldMap map, WorldConfig config, long seed) {
+        ByteBuffer checkpoint = Checkpoint.capture(map, config, epoch, seed, lastSize);
+        lastSize = checkpoint.remaining();
+        awaitPending();
+        pending = writer.submit(() -> writeFile(checkpoint));
+    }
+
+    private void writeFile(ByteBuffer checkpoint) {
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, checkpoint.remaining());
+                mapped.put(checkpoint);
+                mapped.force();
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written++;
+        } catch (IOException e) {
+            System.err.println("Failed to write checkpoint: " + e.getMessage());
+        }
+    }
+
+    private void awaitPending() {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Failed to write checkpoint: " + e.getCause().getMessage());
+        }
+        pending = null;
+    }
+
+    /**
+     * @return number of checkpoints on disk so far.
+     */
+    public int getWritten() {
+        return written;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Waits for the last checkpoint to reach the disk.
+     */
+    @Override
+    public void close() {
+        awaitPending();
+        writer.shutdown();
+    }
+}
@@ -3,9 +3,25 @@ public class ConsoleMapDisplay implements MapChangeListener{
     private int updateCount = 0;
     @Override
     public void mapChanged(WorldMap worldMap, String message) {
+        print(worldMap, message, worldMap.toString());
+    }
+
+    @Override
+    public void deltaPublished(WorldMap worldMap, MapDelta delta) {
+        print(worldMap, delta.toString(), delta.getMapText());
+    }
+
+    @Override
+    public boolean needsMapText(long batch) {
+        return true;
+    }
+
+    private void print(WorldMap worldMap, String message, String mapText) {
         synchronized(System.out) {
             System.out.println("(Map " + worldMap.getId() + ") Update #" + (++updateCount) + ": " + message);
-            System.out.println(worldMap);
+            if (mapText != null) {
+                System.out.println(mapText);
             }
         }
-    }
\ No newline at end of file
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package agh.ics.oop.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where the animals of a map go when they die. Their lifespan and children are added to running totals,
+ * only the most recent ones are kept in memory, so a long run does not keep every animal that ever lived.
+ * With a log file every dead animal is also appended to it as a CSV line.
+ */
+public class DeadAnimalArchive implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final String LOG_HEADER = "id,lifespan,children,plantsEaten,genome";
+
+    private final int capacity;
+    private final ArrayDeque<Animal> recent = new ArrayDeque<>();
+    private final Path logFile;
+    // opened with the first dead animal
+    private BufferedWriter log;
+
+    private long count = 0;
+    private long lifespanSum = 0;
+    private long childrenSum = 0;
+
+    /**
+     * @param capacity number of the most recent dead animals kept in memory.
+     * @param logFile  file the dead animals are appended to, null for none.
+     */
+    public DeadAnimalArchive(int capacity, Path logFile) {
+        this.capacity = Math.max(capacity, 0);
+        this.logFile = logFile;
+    }
+
+    public void add(Animal animal) {
+        count++;
+        lifespanSum += animal.getLifespan();
+        childrenSum += animal.getChildren();
+        if (capacity > 0) {
+            if (recent.size() == capacity) {
+                recent.removeFirst();
+            }
+            recent.addLast(animal);
+        }
+        if (logFile != null) {
+            writeToLog(animal);
+        }
+    }
+
+    /**
+     * Continues the running totals of a run resumed from a checkpoint, the recent animals are not kept in it.
+     */
+    void restoreTotals(long count, long lifespanSum, long childrenSum) {
+        this.count = count;
+        this.lifespanSum = lifespanSum;
+        this.childrenSum = childrenSum;
+    }
+
+    private void writeToLog(Animal animal) {
+        try {
+            if (log == null) {
+                boolean newFile = !Files.exists(logFile);
+                log = Files.newBufferedWriter(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (newFile) {
+                    log.write(LOG_HEADER);
+                    log.newLine();
+                }
+            }
+            int plantsEaten = animal.getStats() != null ? animal.getPlantsEaten() : 0;
+            log.write(animal.getId() + "," + animal.getLifespan() + "," + animal.getChildren() + ","
+                    + plantsEaten + "," + animal.getGenome());
+            log.newLine();
+        } catch (IOException e) {
+            System.err.println("Failed to write to dead animal log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the buffered lines to the log file, called once per epoch.
+     */
+    public void flush() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to write to dead animal log: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close dead animal log: " + e.getMessage());
+        }
+        log = null;
+    }
+
+    /**
+     * @return copy of the dead animals kept in memory, oldest first.
+     */
+    public List<Animal> getRecent() {
+        return new ArrayList<>(recent);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getLifespanSum() {
+        return lifespanSum;
+    }
+
+    public long getChildrenSum() {
+        return childrenSum;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+}
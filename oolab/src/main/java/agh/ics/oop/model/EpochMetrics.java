@@ -0,0 +1,151 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EEpochCounter;
+import agh.ics.oop.model.variants.EEpochPhase;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per phase timings and per epoch counters of a single simulation.
+ * Written by the simulation thread and readable from any other thread without locking.
+ * When disabled every call returns right away, without reading the clock.
+ * Enabling or disabling takes effect when the next epoch starts, so an epoch is either recorded whole or not at all.
+ */
+public class EpochMetrics {
+    private static final int PHASES = EEpochPhase.values().length;
+    private static final int COUNTERS = EEpochCounter.values().length;
+
+    // phases first, then counters
+    private final AtomicLongArray last = new AtomicLongArray(PHASES + COUNTERS);
+    private final AtomicLongArray total = new AtomicLongArray(PHASES + COUNTERS);
+    private final AtomicLongArray max = new AtomicLongArray(PHASES + COUNTERS);
+    private final AtomicLong epochs = new AtomicLong();
+    private volatile boolean enabled;
+    // enabled as read at the start of the epoch, used by the simulation thread only
+    private boolean recording;
+
+    public EpochMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.recording = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void epochStarted() {
+        recording = enabled;
+        if (!recording) {
+            return;
+        }
+        epochs.incrementAndGet();
+        for (int i = 0; i < last.length(); i++) {
+            last.set(i, 0);
+        }
+    }
+
+    /**
+     * @return start time of the first phase, 0 when disabled.
+     */
+    public long startPhase() {
+        return recording ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since {@code start} and returns the current time, so it can start the next phase.
+     */
+    public long endPhase(EEpochPhase phase, long start) {
+        if (!recording) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        record(phase.ordinal(), now - start);
+        return now;
+    }
+
+    public void count(EEpochCounter counter, long amount) {
+        if (!recording) {
+            return;
+        }
+        record(PHASES + counter.ordinal(), amount);
+    }
+
+    private void record(int index, long value) {
+        long current = last.addAndGet(index, value);
+        total.addAndGet(index, value);
+        max.accumulateAndGet(index, current, Math::max);
+    }
+
+    public long getEpochs() {
+        return epochs.get();
+    }
+
+    public long getLastNanos(EEpochPhase phase) {
+        return last.get(phase.ordinal());
+    }
+
+    public long getTotalNanos(EEpochPhase phase) {
+        return total.get(phase.ordinal());
+    }
+
+    public long getMaxNanos(EEpochPhase phase) {
+        return max.get(phase.ordinal());
+    }
+
+    public long getLast(EEpochCounter counter) {
+        return last.get(PHASES + counter.ordinal());
+    }
+
+    public long getTotal(EEpochCounter counter) {
+        return total.get(PHASES + counter.ordinal());
+    }
+
+    public long getMax(EEpochCounter counter) {
+        return max.get(PHASES + counter.ordinal());
+    }
+
+    private String nameOf(int index) {
+        return index < PHASES
+                ? EEpochPhase.values()[index].name().toLowerCase() + "_nanos"
+                : EEpochCounter.values()[index - PHASES].name().toLowerCase();
+    }
+
+    private double average(int index, long epochs) {
+        return epochs == 0 ? 0 : (double) Math.round(total.get(index) * 100.0 / epochs) / 100;
+    }
+
+    /**
+     * One line per metric: name, value in the last epoch, total, average per epoch and the highest value in one epoch.
+     */
+    public String toCsv() {
+        long epochs = getEpochs();
+        StringBuilder sb = new StringBuilder("metric,last,total,average,max\n");
+        for (int i = 0; i < last.length(); i++) {
+            sb.append(nameOf(i)).append(',')
+                    .append(last.get(i)).append(',')
+                    .append(total.get(i)).append(',')
+                    .append(average(i, epochs)).append(',')
+                    .append(max.get(i)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        long epochs = getEpochs();
+        StringBuilder sb = new StringBuilder("{\"epochs\":").append(epochs);
+        for (int i = 0; i < last.length(); i++) {
+            sb.append(",\"").append(nameOf(i)).append("\":{")
+                    .append("\"last\":").append(last.get(i))
+                    .append(",\"total\":").append(total.get(i))
+                    .append(",\"average\":").append(average(i, epochs))
+                    .append(",\"max\":").append(max.get(i))
+                    .append('}');
+        }
+        return sb.append('}').toString();
+    }
+}
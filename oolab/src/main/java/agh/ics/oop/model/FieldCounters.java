@@ -0,0 +1,164 @@
+package agh.ics.oop.model;
+
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+/**
+ * Live counters of the free (no grass, no obstacle) and empty (nothing at all) fields of a map.
+ * They are updated from the storage events and the map obstacle changes, so reading them is O(1)
+ * instead of scanning the whole grid. Free fields are kept in two {@link FreeCellPool}s
+ * (equator and the rest of the map), which the grass spawner samples from.
+ */
+public class FieldCounters implements CellStorageListener {
+    private final CellStorage storage;
+    private final Equator equator;
+    private final Predicate<Vector2d> obstacles;
+    private final Vector2d lowerLeft;
+    private final Vector2d upperRight;
+    private final int columns;
+    private final FreeCellPool equatorPool;
+    private final FreeCellPool outsidePool;
+    private int emptyFields;
+
+    public FieldCounters(CellStorage storage, Equator equator, Predicate<Vector2d> obstacles,
+                         Vector2d lowerLeft, Vector2d upperRight) {
+        this.storage = storage;
+        this.equator = equator;
+        this.obstacles = obstacles;
+        this.lowerLeft = lowerLeft;
+        this.upperRight = upperRight;
+
+        this.columns = upperRight.getX() - lowerLeft.getX() + 1;
+        int rows = upperRight.getY() - lowerLeft.getY() + 1;
+        this.equatorPool = new FreeCellPool(columns * rows);
+        this.outsidePool = new FreeCellPool(columns * rows);
+        for (int y = lowerLeft.getY(); y <= upperRight.getY(); y++) {
+            for (int x = lowerLeft.getX(); x <= upperRight.getX(); x++) {
+                Vector2d position = new Vector2d(x, y);
+                poolOf(position).add(cellOf(position));
+            }
+        }
+        this.emptyFields = columns * rows;
+    }
+
+    private boolean inside(Vector2d position) {
+        return position != null && position.follows(lowerLeft) && position.precedes(upperRight);
+    }
+
+    private int cellOf(Vector2d position) {
+        return (position.getY() - lowerLeft.getY()) * columns + position.getX() - lowerLeft.getX();
+    }
+
+    private FreeCellPool poolOf(Vector2d position) {
+        return equator.contains(position) ? equatorPool : outsidePool;
+    }
+
+    public int getFreeInsideEquator() {
+        return equatorPool.size();
+    }
+
+    public int getFreeOutsideEquator() {
+        return outsidePool.size();
+    }
+
+    public FreeCellPool getEquatorPool() {
+        return equatorPool;
+    }
+
+    public FreeCellPool getOutsidePool() {
+        return outsidePool;
+    }
+
+    public Vector2d positionOf(int cell) {
+        return new Vector2d(lowerLeft.getX() + cell % columns, lowerLeft.getY() + cell / columns);
+    }
+
+    public int getEmptyFields() {
+        return emptyFields;
+    }
+
+    void save(ByteBuffer buffer) {
+        equatorPool.save(buffer);
+        outsidePool.save(buffer);
+        buffer.putInt(emptyFields);
+    }
+
+    /**
+     * Replaces the counters with the ones written by {@link #save}, whatever the storage events said so far.
+     */
+    void load(ByteBuffer buffer) {
+        equatorPool.load(buffer);
+        outsidePool.load(buffer);
+        emptyFields = buffer.getInt();
+    }
+
+    private void changeFree(Vector2d position, boolean free) {
+        if (free) {
+            poolOf(position).add(cellOf(position));
+        } else {
+            poolOf(position).remove(cellOf(position));
+        }
+    }
+
+    @Override
+    public void grassAdded(Vector2d position) {
+        if (!inside(position) || obstacles.test(position)) {
+            return;
+        }
+        changeFree(position, false);
+        if (!storage.hasAnimals(position)) {
+            emptyFields--;
+        }
+    }
+
+    @Override
+    public void grassRemoved(Vector2d position) {
+        if (!inside(position) || obstacles.test(position)) {
+            return;
+        }
+        changeFree(position, true);
+        if (!storage.hasAnimals(position)) {
+            emptyFields++;
+        }
+    }
+
+    @Override
+    public void animalsArrived(Vector2d position) {
+        if (inside(position) && storage.grassAt(position) == null && !obstacles.test(position)) {
+            emptyFields--;
+        }
+    }
+
+    @Override
+    public void animalsLeft(Vector2d position) {
+        if (inside(position) && storage.grassAt(position) == null && !obstacles.test(position)) {
+            emptyFields++;
+        }
+    }
+
+    /**
+     * Called by the map right after an obstacle (e.g. fire) appeared at the position.
+     */
+    public void obstacleAdded(Vector2d position) {
+        if (!inside(position) || storage.grassAt(position) != null) {
+            return;
+        }
+        changeFree(position, false);
+        if (!storage.hasAnimals(position)) {
+            emptyFields--;
+        }
+    }
+
+    /**
+     * Called by the map right after an obstacle disappeared from the position.
+     */
+    public void obstacleRemoved(Vector2d position) {
+        if (!inside(position) || storage.grassAt(position) != null) {
+            return;
+        }
+        changeFree(position, true);
+        if (!storage.hasAnimals(position)) {
+            emptyFields++;
+        }
+    }
+}
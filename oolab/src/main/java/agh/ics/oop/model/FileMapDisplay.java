@@ -1,28 +1,259 @@
 package agh.ics.oop.model;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
-public class FileMapDisplay implements MapChangeListener {
-    private final UUID mapId;
+/**
+ * Logs the updates of a map to {@code map_<id>.log}. Updates are rendered on the notifying thread, or taken from the
+ * {@link MapDelta} drawn by a {@link MapEventBus}, and written by a background thread through one open buffered writer,
+ * which is flushed whenever the queue runs dry.
+ * The queue is bounded, updates arriving while it is full are dropped and counted in the log.
+ * The log can be gzipped and rotated once it reaches a size, keeping {@link #ROTATED_FILES} older files.
+ */
+public class FileMapDisplay implements MapChangeListener, AutoCloseable {
+    public static final int QUEUE_CAPACITY = 1024;
+    public static final int ROTATED_FILES = 5;
+
+    // queued to stop the writer thread, compared by identity
+    private static final String STOP = new String("stop");
+
+    private final Path logFile;
+    private final long maxBytes;
+    private final boolean gzip;
+    private final int snapshotInterval;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicInteger dropped = new AtomicInteger();
     private int updateCount = 0;
+    // started with the first update
+    private Thread writerThread;
+
+    // used by the writer thread only
+    private BufferedWriter writer;
+    private long written = 0;
 
     public FileMapDisplay(UUID mapId) {
-        this.mapId = mapId;
+        this(Path.of("map_" + mapId + ".log"), 0, false, 1);
+    }
+
+    public FileMapDisplay(UUID mapId, WorldConfig config) {
+        this(Path.of("map_" + mapId + ".log"), config.getMapLogMaxBytes(), config.isMapLogGzip(),
+                config.getMapLogSnapshotInterval());
+    }
+
+    /**
+     * @param maxBytes         size the log is rotated at, in UTF-8 bytes counted before compression, 0 to never rotate.
+     * @param gzip             whether to compress the log, ".gz" is added to the file name.
+     * @param snapshotInterval the whole map is drawn every this many updates, or batches of a {@link MapEventBus},
+     *                         the others log only the message.
+     */
+    public FileMapDisplay(Path logFile, long maxBytes, boolean gzip, int snapshotInterval) {
+        this.logFile = gzip ? Path.of(logFile + ".gz") : logFile;
+        this.maxBytes = maxBytes;
+        this.gzip = gzip;
+        this.snapshotInterval = Math.max(snapshotInterval, 1);
     }
 
     @Override
     public void mapChanged(WorldMap worldMap, String message) {
-        String logFileName = "map_" + mapId + ".log";
+        log(worldMap, message, updateCount % snapshotInterval == 0 ? worldMap.toString() : null);
+    }
+
+    @Override
+    public void deltaPublished(WorldMap worldMap, MapDelta delta) {
+        log(worldMap, delta.toString(), delta.getMapText());
+    }
+
+    @Override
+    public boolean needsMapText(long batch) {
+        return (batch - 1) % snapshotInterval == 0;
+    }
+
+    /**
+     * @param mapText the drawn map, null to log only the message.
+     */
+    private void log(WorldMap worldMap, String message, String mapText) {
+        updateCount++;
+        StringBuilder entry = new StringBuilder();
+        entry.append("(Map ").append(worldMap.getId()).append(") Update #").append(updateCount).append(": ")
+                .append(message).append(System.lineSeparator());
+        if (mapText != null) {
+            entry.append(mapText);
+        }
+        startWriter();
+        if (!queue.offer(entry.toString())) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writerThread == null) {
+            writerThread = new Thread(this::writeLoop, "map-log-" + logFile.getFileName());
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                String entry = queue.poll();
+                if (entry == null) {
+                    flush();
+                    entry = queue.take();
+                }
+                if (entry == STOP) {
+                    break;
+                }
+                int lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    write("(" + lost + " updates dropped)" + System.lineSeparator());
+                }
+                write(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void write(String entry) {
+        try {
+            if (writer == null) {
+                openWriter();
+            }
+            writer.write(entry);
+            written += utf8Length(entry);
+            if (maxBytes > 0 && written >= maxBytes) {
+                closeWriter();
+                rotate();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write to log file: " + e.getMessage());
+        }
+    }
+
+    private void openWriter() throws IOException {
+        written = logSize();
+        OutputStream out = Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (gzip) {
+            // appended gzip members read back as one stream
+            out = new GZIPOutputStream(out);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return bytes already in the log before compression, read back only when the log is reopened.
+     */
+    private long logSize() throws IOException {
+        if (!Files.exists(logFile)) {
+            return 0;
+        }
+        if (!gzip) {
+            return Files.size(logFile);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(logFile))) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        } catch (EOFException e) {
+            // cut off by a crash, the compressed size is the best guess
+            return Files.size(logFile);
+        }
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            // a surrogate pair takes 4 bytes, 2 per char
+            length += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+        }
+        return length;
+    }
+
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotatedFile(ROTATED_FILES));
+        for (int i = ROTATED_FILES - 1; i >= 1; i--) {
+            if (Files.exists(rotatedFile(i))) {
+                Files.move(rotatedFile(i), rotatedFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(logFile, rotatedFile(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return file the log was moved to by the given rotation back, 1 being the most recent one.
+     */
+    public Path rotatedFile(int generation) {
+        String name = logFile.getFileName().toString();
+        String rotated = gzip
+                ? name.substring(0, name.length() - ".gz".length()) + "." + generation + ".gz"
+                : name + "." + generation;
+        return logFile.resolveSibling(rotated);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFileName, true))) {
-            writer.write("(Map " + worldMap.getId() + ") Update #" + (++updateCount) + ": " + message);
-            writer.newLine();
-            writer.write(worldMap.toString());
+    private void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
         } catch (IOException e) {
             System.err.println("Failed to write to log file: " + e.getMessage());
         }
     }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close log file: " + e.getMessage());
+        }
+        writer = null;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Writes the queued updates and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = writerThread;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            queue.put(STOP);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            writerThread = null;
+        }
+    }
 }
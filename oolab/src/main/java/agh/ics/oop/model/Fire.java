@@ -6,8 +6,12 @@ public class Fire implements WorldElement{
     private int age;
 
     public Fire(Vector2d position) {
+        this(position, 1);
+    }
+
+    public Fire(Vector2d position, int age) {
         this.position = position;
-        this.age = 1;
+        this.age = age;
     }
 
     public Vector2d getPosition() {
@@ -0,0 +1,206 @@
+package agh.ics.oop.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Burning cells of a {@link FireWorldMap}, kept in arrays indexed by cell ({@code y * columns + x}).
+ * Every fire burns for the same number of spreads, so fires burn out in the order they caught fire
+ * and a ring buffer of burning cells finds the expired ones at its head. Only cells that can catch fire
+ * are checked on a spread: the neighbours of fires lit since the last spread and grass grown next to a fire,
+ * collected in a bit set so every cell is checked once. Grass cells are kept in a {@link FreeCellPool}
+ * to start a fire at a random one. Storage events are passed on to the map's field counters.
+ */
+class FireFront implements CellStorageListener {
+    private static final int NOT_BURNING = -1;
+
+    private final Globe globe;
+    private final CellStorageListener delegate;
+    private final int columns;
+    private final int rows;
+    // spread the cell caught fire in
+    private final int[] litAt;
+    private final int[] burning;
+    private int head = 0;
+    private int count = 0;
+    private final BitSet candidates;
+    private final FreeCellPool grassCells;
+    private int spreads = 0;
+
+    FireFront(Globe globe, int columns, int rows, CellStorageListener delegate) {
+        this.globe = globe;
+        this.delegate = delegate;
+        this.columns = columns;
+        this.rows = rows;
+        this.litAt = new int[columns * rows];
+        Arrays.fill(litAt, NOT_BURNING);
+        this.burning = new int[columns * rows];
+        this.candidates = new BitSet(columns * rows);
+        this.grassCells = new FreeCellPool(columns * rows);
+    }
+
+    boolean isBurning(int cell) {
+        return litAt[cell] != NOT_BURNING;
+    }
+
+    /**
+     * @return age of the fire in the cell, 1 until its first spread.
+     */
+    int age(int cell) {
+        return spreads - litAt[cell] + 1;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Sets the bits of the burning cells in the target.
+     */
+    void collectBurning(BitSet target) {
+        for (int i = 0; i < count; i++) {
+            target.set(burning[(head + i) % burning.length]);
+        }
+    }
+
+    /**
+     * Writes the fires in the order they caught fire, the cells waiting for the next spread and the grass cells.
+     */
+    void save(ByteBuffer buffer) {
+        buffer.putInt(spreads);
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            int cell = burning[(head + i) % burning.length];
+            buffer.putInt(cell);
+            buffer.putInt(litAt[cell]);
+        }
+        buffer.putInt(candidates.cardinality());
+        for (int cell = candidates.nextSetBit(0); cell >= 0; cell = candidates.nextSetBit(cell + 1)) {
+            buffer.putInt(cell);
+        }
+        grassCells.save(buffer);
+    }
+
+    /**
+     * Replaces the fires with the ones written by {@link #save}, the storage events are not repeated.
+     */
+    void load(ByteBuffer buffer) {
+        Arrays.fill(litAt, NOT_BURNING);
+        spreads = buffer.getInt();
+        count = buffer.getInt();
+        head = 0;
+        for (int i = 0; i < count; i++) {
+            burning[i] = buffer.getInt();
+            litAt[burning[i]] = buffer.getInt();
+        }
+        candidates.clear();
+        int candidateCount = buffer.getInt();
+        for (int i = 0; i < candidateCount; i++) {
+            candidates.set(buffer.getInt());
+        }
+        grassCells.load(buffer);
+    }
+
+    void ignite(int cell) {
+        litAt[cell] = spreads;
+        burning[(head + count) % burning.length] = cell;
+        count++;
+        int x = cell % columns;
+        int y = cell / columns;
+        if (x > 0) {
+            candidates.set(cell - 1);
+        }
+        if (x < columns - 1) {
+            candidates.set(cell + 1);
+        }
+        if (y > 0) {
+            candidates.set(cell - columns);
+        }
+        if (y < rows - 1) {
+            candidates.set(cell + columns);
+        }
+    }
+
+    /**
+     * Starts the next spread: fires older than maxAge burn out, in the order they caught fire.
+     */
+    void burnOut(int maxAge, IntConsumer burnedOut) {
+        spreads++;
+        while (count > 0 && spreads - litAt[burning[head]] > maxAge) {
+            int cell = burning[head];
+            litAt[cell] = NOT_BURNING;
+            head = (head + 1) % burning.length;
+            count--;
+            burnedOut.accept(cell);
+        }
+    }
+
+    /**
+     * Moves the cells that may catch fire into the buffer and forgets them.
+     * A cell qualifies when it still has a burning neighbour.
+     *
+     * @return number of cells written to the buffer, in cell order.
+     */
+    int takeCandidates(int[] buffer) {
+        int taken = 0;
+        for (int cell = candidates.nextSetBit(0); cell >= 0; cell = candidates.nextSetBit(cell + 1)) {
+            if (!isBurning(cell) && hasBurningNeighbour(cell)) {
+                buffer[taken++] = cell;
+            }
+        }
+        candidates.clear();
+        return taken;
+    }
+
+    private boolean hasBurningNeighbour(int cell) {
+        int x = cell % columns;
+        int y = cell / columns;
+        return (x > 0 && isBurning(cell - 1))
+                || (x < columns - 1 && isBurning(cell + 1))
+                || (y > 0 && isBurning(cell - columns))
+                || (y < rows - 1 && isBurning(cell + columns));
+    }
+
+    /**
+     * @return random grass cell, -1 when there is no grass.
+     */
+    int randomGrassCell() {
+        return grassCells.isEmpty() ? -1 : grassCells.randomCell(globe.getRandom());
+    }
+
+    private boolean inside(Vector2d position) {
+        return position.getX() >= 0 && position.getX() < columns && position.getY() >= 0 && position.getY() < rows;
+    }
+
+    @Override
+    public void grassAdded(Vector2d position) {
+        delegate.grassAdded(position);
+        if (inside(position)) {
+            int cell = globe.cellOf(position);
+            grassCells.add(cell);
+            if (hasBurningNeighbour(cell)) {
+                candidates.set(cell);
+            }
+        }
+    }
+
+    @Override
+    public void grassRemoved(Vector2d position) {
+        delegate.grassRemoved(position);
+        if (inside(position)) {
+            grassCells.remove(globe.cellOf(position));
+        }
+    }
+
+    @Override
+    public void animalsArrived(Vector2d position) {
+        delegate.animalsArrived(position);
+    }
+
+    @Override
+    public void animalsLeft(Vector2d position) {
+        delegate.animalsLeft(position);
+    }
+}
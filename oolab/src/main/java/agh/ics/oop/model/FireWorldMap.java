@@ -1,15 +1,32 @@
 package agh.ics.oop.model;
 
+import agh.ics.oop.model.variants.EStorageVariant;
+
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class FireWorldMap extends AbstractWorldMap {
 
-    private Map<Vector2d, Fire> fires = new HashMap<>();
+    private final FireFront front;
+    // cells that may catch fire on the current spread
+    private final int[] candidates;
+    // counted into the epoch deaths by the simulation
+    private int animalsBurned = 0;
 
     public FireWorldMap(int width, int height, int n, List<MapChangeListener> injectedObservers) {
-        super(width, height);
+        this(width, height, n, injectedObservers, EStorageVariant.HASH);
+    }
+
+    public FireWorldMap(int width, int height, int n, List<MapChangeListener> injectedObservers, EStorageVariant storageVariant) {
+        this(width, height, n, injectedObservers, storageVariant, new SplittableRandom());
+    }
+
+    public FireWorldMap(int width, int height, int n, List<MapChangeListener> injectedObservers, EStorageVariant storageVariant, SplittableRandom random) {
+        super(width, height, storageVariant, random);
+        this.front = new FireFront(this, width + 1, height + 1, this.fieldCounters);
+        this.candidates = new int[(width + 1) * (height + 1)];
+        this.storage.setListener(this.front);
         if (injectedObservers != null) {
             for (MapChangeListener observer : injectedObservers) {
                 this.addObserver(observer);
@@ -28,85 +45,99 @@ public class FireWorldMap extends AbstractWorldMap {
     public ArrayList<WorldElement> objectAt(Vector2d position) {
         List<WorldElement> objects = super.objectAt(position);
         List<WorldElement> fireObjects = new ArrayList<>();
-        if(fires.get(position) != null) {
-            fireObjects.add(fires.get(position));
+        if (hasObstacle(position)) {
+            fireObjects.add(new Fire(position, front.age(cellOf(position))));
         }
         return Stream.concat(fireObjects.stream(), objects.stream())
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    public void spreadFire(int maxAge, boolean start) {
-        List<Vector2d> neighbours = Arrays.asList(
-                new Vector2d(1, 0),
-                new Vector2d(-1, 0),
-                new Vector2d(0, 1),
-                new Vector2d(0, -1)
-        );
-        List<Vector2d> positionsToRemove = new ArrayList<>();
-        List<Vector2d> positionsToAdd = new ArrayList<>();
-
-        fires.forEach((position, fire) -> {
-            if (fire.burn() > maxAge) {
-                positionsToRemove.add(position);
-            } else {
-                for (Vector2d neighbour : neighbours) {
-                    positionsToAdd.add(position.add(neighbour));
-                }
+    /**
+     * Fires older than maxAge burn out, then grass next to the remaining fires catches fire.
+     * Only the cells next to fires lit since the last spread, or next to fires grass grew next to, are checked.
+     *
+     * @return number of cells set on fire.
+     */
+    public int spreadFire(int maxAge, boolean start) {
+        front.burnOut(maxAge, cell -> fieldCounters.obstacleRemoved(positionOf(cell)));
+        int taken = front.takeCandidates(candidates);
+        int burned = 0;
+        for (int i = 0; i < taken; i++) {
+            if (addFire(positionOf(candidates[i]))) {
+                burned++;
             }
-        });
-
-        positionsToRemove.forEach(fires::remove);
-        positionsToAdd.forEach(this::addFire);
-        if (start) {
-            startFire();
         }
+        if (start && startFire()) {
+            burned++;
+        }
+        return burned;
     }
 
-    public void addFire(Vector2d position) {
+    /**
+     * @return true if the position caught fire.
+     */
+    public boolean addFire(Vector2d position) {
         if (!contains(position)) {
-            return;
+            return false;
         }
-        if (fires.get(position) != null || grasses.get(position) == null) {
-            return;
+        if (front.isBurning(cellOf(position)) || storage.grassAt(position) == null) {
+            return false;
         }
-        Fire fire = new Fire(position);
-        fires.put(position, fire);
-        grasses.remove(position);
-        if (animals.get(position) != null && !animals.get(position).isEmpty()) {
-            for (Animal animal : animals.get(position)) {
+        front.ignite(cellOf(position));
+        fieldCounters.obstacleAdded(position);
+        storage.removeGrass(position);
+        if (storage.hasAnimals(position)) {
+            List<Animal> burned = new ArrayList<>(storage.animalsAt(position));
+            for (Animal animal : burned) {
                 animal.setEnergy(-1);
+                storage.removeAnimal(position, animal);
             }
-            this.deadAnimals.addAll(animals.get(position));
-            animals.remove(position);
-            animals.put(position, new ArrayList<>());
+            burned.forEach(this::addDeadAnimal);
+            animalsBurned += burned.size();
+        }
+        if (getEventBus() != null) {
+            getEventBus().fireAdded(position);
+        } else {
+            notifyObservers("Fire added at " + position);
         }
-        notifyObservers("Fire added at " + position);
+        return true;
+    }
+
+    @Override
+    protected boolean hasObstacle(Vector2d position) {
+        // called by the field counters before the front is created
+        return front != null && contains(position) && front.isBurning(cellOf(position));
     }
 
-    public void startFire(){
-        ArrayList<Vector2d> grassPositions = new ArrayList<>(grasses.keySet());
-        if(grassPositions.isEmpty()){
-            return;
+    public boolean startFire(){
+        int cell = front.randomGrassCell();
+        if (cell < 0) {
+            return false;
         }
-        Vector2d randomPosition = grassPositions.get(new Random().nextInt(grassPositions.size()));
-        addFire(randomPosition);
+        return addFire(positionOf(cell));
     }
 
-    @Override
-    public int calculateFreeFieldsOutsideEquator() {
-        int freeFields = super.calculateFreeFieldsOutsideEquator();
-        freeFields -= (int)fires.keySet().stream().filter(position -> !this.equator.contains(position)).count();
-        return freeFields;
+    /**
+     * Sets the bits of the burning cells ({@code y * columns + x}) in the target.
+     */
+    void collectFireCells(BitSet target) {
+        front.collectBurning(target);
     }
 
-    @Override
-    public int calculateFreeFieldsInsideEquator() {
-        int freeFields = super.calculateFreeFieldsInsideEquator();
-        freeFields -= (int)fires.keySet().stream().filter(this.equator::contains).count();
-        return freeFields;
+    FireFront getFront() {
+        return front;
     }
 
     public int getFireCount() {
-        return fires.size();
+        return front.size();
+    }
+
+    /**
+     * @return number of animals burned since the last call, they die without going through the dead animal removal.
+     */
+    public int takeAnimalsBurned() {
+        int taken = animalsBurned;
+        animalsBurned = 0;
+        return taken;
     }
 }
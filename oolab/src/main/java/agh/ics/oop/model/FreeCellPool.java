@@ -0,0 +1,83 @@
+package agh.ics.oop.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Set of free map cells supporting O(1) add, remove and uniform random pick.
+ * Cells are {@code y * width + x} indices kept in a dense array, removal swaps
+ * the last cell into the freed slot.
+ */
+public class FreeCellPool {
+    private final int[] cells;
+    private final int[] slots;
+    private int size = 0;
+
+    public FreeCellPool(int capacity) {
+        this.cells = new int[capacity];
+        this.slots = new int[capacity];
+        Arrays.fill(this.slots, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int cell) {
+        return slots[cell] >= 0;
+    }
+
+    public void add(int cell) {
+        if (slots[cell] >= 0) {
+            return;
+        }
+        cells[size] = cell;
+        slots[cell] = size;
+        size++;
+    }
+
+    public void remove(int cell) {
+        int slot = slots[cell];
+        if (slot < 0) {
+            return;
+        }
+        int last = cells[--size];
+        cells[slot] = last;
+        slots[last] = slot;
+        slots[cell] = -1;
+    }
+
+    /**
+     * Writes the cells in pool order, which decides what {@link #randomCell} draws.
+     */
+    void save(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(cells[i]);
+        }
+    }
+
+    /**
+     * Replaces the cells with the ones written by {@link #save}, in the same order.
+     */
+    void load(ByteBuffer buffer) {
+        Arrays.fill(slots, -1);
+        size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            cells[i] = buffer.getInt();
+            slots[cells[i]] = i;
+        }
+    }
+
+    public int randomCell(RandomGenerator random) {
+        if (size == 0) {
+            throw new IllegalStateException("No free cells left.");
+        }
+        return cells[random.nextInt(size)];
+    }
+}
@@ -0,0 +1,162 @@
+package agh.ics.oop.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts occurrences of keys and keeps the most frequent ones available in constant time.
+ * Keys with the same count share a bucket, the non-empty buckets form a list sorted by count,
+ * so changing a count only moves the key to a neighbouring bucket.
+ */
+class FrequencyTable<K> {
+
+    private static final class Bucket<K> {
+        final int count;
+        final LinkedHashSet<K> keys = new LinkedHashSet<>();
+        // towards higher and lower counts
+        Bucket<K> higher;
+        Bucket<K> lower;
+
+        Bucket(int count) {
+            this.count = count;
+        }
+    }
+
+    private final Map<K, Bucket<K>> buckets = new HashMap<>();
+    // buckets with the highest and the lowest count, null when the table is empty
+    private Bucket<K> top;
+    private Bucket<K> lowest;
+
+    public void add(K key) {
+        Bucket<K> bucket = buckets.get(key);
+        Bucket<K> target;
+        if (bucket == null) {
+            target = lowest;
+            if (target == null || target.count != 1) {
+                target = insertLowest(1);
+            }
+        } else {
+            target = bucket.higher;
+            if (target == null || target.count != bucket.count + 1) {
+                target = insertAbove(bucket, bucket.count + 1);
+            }
+            detach(bucket, key);
+        }
+        target.keys.add(key);
+        buckets.put(key, target);
+    }
+
+    public void remove(K key) {
+        Bucket<K> bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        if (bucket.count == 1) {
+            buckets.remove(key);
+        } else {
+            Bucket<K> target = bucket.lower;
+            if (target == null || target.count != bucket.count - 1) {
+                target = insertBelow(bucket, bucket.count - 1);
+            }
+            target.keys.add(key);
+            buckets.put(key, target);
+        }
+        detach(bucket, key);
+    }
+
+    public int count(K key) {
+        Bucket<K> bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.count;
+    }
+
+    public int getMaxCount() {
+        return top == null ? 0 : top.count;
+    }
+
+    /**
+     * @return number of distinct keys.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * @return one of the keys occurring most often, null when the table is empty.
+     */
+    public K mostFrequent() {
+        return top == null ? null : top.keys.iterator().next();
+    }
+
+    /**
+     * @return up to {@code k} keys, from the most frequent one down.
+     */
+    public List<K> mostFrequent(int k) {
+        List<K> result = new ArrayList<>(Math.min(k, buckets.size()));
+        for (Bucket<K> bucket = top; bucket != null && result.size() < k; bucket = bucket.lower) {
+            for (K key : bucket.keys) {
+                if (result.size() == k) {
+                    break;
+                }
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    private Bucket<K> insertLowest(int count) {
+        Bucket<K> bucket = new Bucket<>(count);
+        bucket.higher = lowest;
+        if (lowest != null) {
+            lowest.lower = bucket;
+        } else {
+            top = bucket;
+        }
+        lowest = bucket;
+        return bucket;
+    }
+
+    private Bucket<K> insertBelow(Bucket<K> above, int count) {
+        if (above.lower == null) {
+            return insertLowest(count);
+        }
+        Bucket<K> bucket = new Bucket<>(count);
+        bucket.higher = above;
+        bucket.lower = above.lower;
+        above.lower.higher = bucket;
+        above.lower = bucket;
+        return bucket;
+    }
+
+    private Bucket<K> insertAbove(Bucket<K> below, int count) {
+        Bucket<K> bucket = new Bucket<>(count);
+        bucket.lower = below;
+        bucket.higher = below.higher;
+        if (below.higher != null) {
+            below.higher.lower = bucket;
+        } else {
+            top = bucket;
+        }
+        below.higher = bucket;
+        return bucket;
+    }
+
+    private void detach(Bucket<K> bucket, K key) {
+        bucket.keys.remove(key);
+        if (!bucket.keys.isEmpty()) {
+            return;
+        }
+        if (bucket.higher != null) {
+            bucket.higher.lower = bucket.lower;
+        } else {
+            top = bucket.lower;
+        }
+        if (bucket.lower != null) {
+            bucket.lower.higher = bucket.higher;
+        } else {
+            lowest = bucket.higher;
+        }
+    }
+}
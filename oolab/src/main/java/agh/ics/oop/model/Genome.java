@@ -2,25 +2,72 @@ package agh.ics.oop.model;
 
 import agh.ics.oop.model.variants.EMutationVariant;
 
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
 import static java.lang.Math.round;
 
+/**
+ * Genes are values 0..7 packed 3 bits each, 21 genes in a long word,
+ * so crossover copies whole words and a random long fills 21 genes at once.
+ */
 public class Genome {
+    private static final int GENE_BITS = 3;
+    private static final int GENES_PER_WORD = Long.SIZE / GENE_BITS;
+    private static final long GENE_MASK = (1L << GENE_BITS) - 1;
+
     WorldConfig config;
     private int currentGene = 0;
     private int length = 0;
+    // number given by the GenomePool of the map, shared by all genomes with the same genes
+    private int id = -1;
+
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
 
     public int getCurrentGene() {
-        int r = genome[currentGene];
+        int r = getGene(currentGene);
         currentGene = (currentGene + 1) % length;
         return r;
     }
 
+    // index of the gene {@link #getCurrentGene()} returns next, a population store keeps it while the animal lives
+    int getGeneIndex() {
+        return currentGene;
+    }
+
+    void setGeneIndex(int index) {
+        this.currentGene = index;
+    }
+
     public int getLength() {
         return length;
     }
 
+    /**
+     * @return copy of the genes, changing it does not change the genome.
+     */
     public int[] getGenome() {
-        return genome;
+        int[] genes = new int[length];
+        for (int i = 0; i < length; i++) {
+            genes[i] = getGene(i);
+        }
+        return genes;
+    }
+
+    public int getGene(int index) {
+        return (int) (words[index / GENES_PER_WORD] >>> (index % GENES_PER_WORD * GENE_BITS) & GENE_MASK);
+    }
+
+    private void setGene(int index, int gene) {
+        int shift = index % GENES_PER_WORD * GENE_BITS;
+        int word = index / GENES_PER_WORD;
+        words[word] = words[word] & ~(GENE_MASK << shift) | (long) gene << shift;
     }
 
     public int getMinGeneValue() {
@@ -31,7 +78,7 @@ public class Genome {
         return maxGeneValue;
     }
 
-    private int[] genome;
+    private final long[] words;
     private final int minGeneValue = 0;
     private final int maxGeneValue = 7;
 
@@ -39,10 +86,18 @@ public class Genome {
         this.config = config;
 
         this.length = config.getGenomeLength();
-        genome = new int[length];
+        words = new long[(length + GENES_PER_WORD - 1) / GENES_PER_WORD];
+    }
+
+    public static Genome fromGenes(WorldConfig config, int[] genes) {
+        Genome genome = new Genome(config);
+        for (int i = 0; i < Math.min(genes.length, genome.length); i++) {
+            genome.setGene(i, genes[i]);
+        }
+        return genome;
     }
 
-    public Genome reproductionGenome(Animal animal1, Animal animal2) {
+    public Genome reproductionGenome(Animal animal1, Animal animal2, RandomGenerator random) {
         Genome genome1;
         Genome genome2;
         int energy1;
@@ -64,46 +119,56 @@ public class Genome {
         Genome childrenGenome = new Genome(config);
         int cutIndex = round((float)(energy1) / (float)(energy1 + energy2) * length);
 
-        if (Math.random() < 0.5) {  //left part of genome of the stronger animal is dominant
-            for (int i = 0; i < cutIndex; i++) {
-                childrenGenome.genome[i] = genome1.genome[i];
-            }
-            for (int i = cutIndex; i < length; i++) {
-                childrenGenome.genome[i] = genome2.genome[i];
-            }
+        if (random.nextDouble() < 0.5) {  //left part of genome of the stronger animal is dominant
+            childrenGenome.crossover(genome1, genome2, cutIndex);
         }
         else {
-            cutIndex = length - cutIndex;
-            for (int i = 0; i < cutIndex; i++) {
-                childrenGenome.genome[i] = genome2.genome[i];
-            }
-            for (int i = cutIndex; i < length; i++) {
-                childrenGenome.genome[i] = genome1.genome[i];
-            }
+            childrenGenome.crossover(genome2, genome1, length - cutIndex);
         }
-        return mutation(childrenGenome);
+        childrenGenome.mutate(random);
+        return childrenGenome;
 
     }
 
-    public static Genome randomGenome(WorldConfig config){
+    // genes before cutIndex come from left, the rest from right
+    private void crossover(Genome left, Genome right, int cutIndex) {
+        int cutWord = cutIndex / GENES_PER_WORD;
+        System.arraycopy(left.words, 0, words, 0, cutWord);
+        System.arraycopy(right.words, cutWord, words, cutWord, words.length - cutWord);
+        if (cutWord < words.length) {
+            long leftMask = (1L << (cutIndex % GENES_PER_WORD * GENE_BITS)) - 1;
+            words[cutWord] = left.words[cutWord] & leftMask | right.words[cutWord] & ~leftMask;
+        }
+    }
+
+    public static Genome randomGenome(WorldConfig config, RandomGenerator random){
         Genome genome = new Genome(config);
-        for (int i = 0; i < genome.length; i++){
-            genome.genome[i] = (int) ((Math.random() * (genome.maxGeneValue - genome.minGeneValue)) + genome.minGeneValue);
+        for (int i = 0; i < genome.words.length; i++) {
+            // bits past the last gene stay zero, so equal genomes have equal words
+            int genes = Math.min(GENES_PER_WORD, genome.length - i * GENES_PER_WORD);
+            genome.words[i] = random.nextLong() & (1L << genes * GENE_BITS) - 1;
         }
         return genome;
     }
 
-    private Genome mutation(Genome genome) {
-        int numMutations = getRandomNumberInRange(config.getMinMutations(), config.getMaxMutations());
+    // one random long gives the new values of 21 mutated genes
+    private void mutate(RandomGenerator random) {
+        int numMutations = random.nextInt(config.getMinMutations(), config.getMaxMutations() + 1);
+        boolean standard = config.getMutationVariant() == EMutationVariant.STANDARD;
+        long values = 0;
 
         for (int i = 0; i < numMutations; i++) {
-            int geneIndex = getRandomNumberInRange(0, length - 1); // Losowy indeks genu do zmutowania
+            int geneIndex = random.nextInt(length); // Losowy indeks genu do zmutowania
+            if (i % GENES_PER_WORD == 0) {
+                values = random.nextLong();
+            }
+            int value = (int) (values >>> (i % GENES_PER_WORD * GENE_BITS) & GENE_MASK);
 
-            if (config.getMutationVariant() == EMutationVariant.STANDARD) {
-                genome.genome[geneIndex] = getRandomNumberInRange(minGeneValue, maxGeneValue);
+            if (standard) {
+                setGene(geneIndex, value);
             } else {
-                int change = Math.random() < 0.5 ? 1 : -1; // Losowo +1 lub -1
-                int newValue = genome.genome[geneIndex] + change;
+                int change = (value & 1) == 0 ? 1 : -1; // Losowo +1 lub -1
+                int newValue = getGene(geneIndex) + change;
 
                 if (newValue < minGeneValue) {
                     newValue = maxGeneValue;
@@ -111,26 +176,37 @@ public class Genome {
                     newValue = minGeneValue;
                 }
 
-                genome.genome[geneIndex] = newValue;
+                setGene(geneIndex, newValue);
             }
         }
+    }
 
-        return genome;
+    /**
+     * Genomes are equal when they have the same genes, the position of the active gene does not matter.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof Genome that && that.length == this.length && Arrays.equals(words, that.words);
     }
 
-    private int getRandomNumberInRange(int min, int max) {
-        return (int) (Math.random() * (max - min + 1)) + min;
+    @Override
+    public int hashCode() {
+        // rolling hash of the packed genes
+        int hash = 1;
+        for (long word : words) {
+            hash = 31 * hash + Long.hashCode(word);
+        }
+        return hash;
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < length; i++) {
-            sb.append(genome[i]);
+            sb.append(getGene(i));
         }
         return sb.toString();
     }
 }
-
-
-
-
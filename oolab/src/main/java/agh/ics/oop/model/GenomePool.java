@@ -0,0 +1,73 @@
+package agh.ics.oop.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interning table of the genomes carried by living animals, keyed by the genes.
+ * Every distinct genome gets an id, so genomes can be compared by number, and a count of
+ * the animals carrying it, kept in a {@link FrequencyTable} for the dominant genomes.
+ * A genome is forgotten when its last carrier dies and gets a new id if it appears again.
+ */
+public class GenomePool {
+    // first genome seen with the given genes
+    private final Map<Genome, Genome> interned = new HashMap<>();
+    private final FrequencyTable<Genome> carriers = new FrequencyTable<>();
+    private int nextId = 0;
+
+    /**
+     * Called when an animal carrying the genome appears on the map, gives the genome its id.
+     */
+    public void acquire(Genome genome) {
+        Genome first = interned.get(genome);
+        if (first == null) {
+            first = genome;
+            genome.setId(nextId++);
+            interned.put(genome, genome);
+        } else {
+            genome.setId(first.getId());
+        }
+        carriers.add(first);
+    }
+
+    /**
+     * Called when an animal carrying the genome leaves the map.
+     */
+    public void release(Genome genome) {
+        Genome first = interned.get(genome);
+        if (first == null) {
+            return;
+        }
+        carriers.remove(first);
+        if (carriers.count(first) == 0) {
+            interned.remove(first);
+        }
+    }
+
+    public int countCarriers(Genome genome) {
+        Genome first = interned.get(genome);
+        return first == null ? 0 : carriers.count(first);
+    }
+
+    /**
+     * @return number of distinct genomes among living animals.
+     */
+    public int size() {
+        return interned.size();
+    }
+
+    /**
+     * @return the genome carried by most animals, null when there are none.
+     */
+    public Genome dominantGenome() {
+        return carriers.mostFrequent();
+    }
+
+    /**
+     * @return up to {@code k} genomes carried by most animals, the most common first.
+     */
+    public List<Genome> dominantGenomes(int k) {
+        return carriers.mostFrequent(k);
+    }
+}
@@ -2,31 +2,147 @@ package agh.ics.oop.model;
 
 import agh.ics.oop.model.util.Boundary;
 
+import java.util.SplittableRandom;
+
 public abstract class Globe implements WorldMap {
     // FIXME: This class should be abstract
     private Vector2d lowerLeft, upperRight; // 0,0 to size.x, size.y
 
+    private static final int[] DX = new int[MapDirection.count()];
+    private static final int[] DY = new int[MapDirection.count()];
+
+    static {
+        for (int i = 0; i < MapDirection.count(); i++) {
+            DX[i] = MapDirection.fromOrdinal(i).toUnitVector().getX();
+            DY[i] = MapDirection.fromOrdinal(i).toUnitVector().getY();
+        }
+    }
+
+    private static final int DIRECTION_BITS = 3;
+    private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+
+    private final int columns;
+    private final int rows;
+    // shared immutable position per cell, filled on first use
+    private final Vector2d[] positions;
+    // random source of the simulation, used by the simulation thread only
+    private SplittableRandom random;
+    // animals are created by the simulation thread only, so ids follow the seed
+    private int nextAnimalId = 0;
+    private final LineageGraph lineage = new LineageGraph();
+
     public Globe(Vector2d upperRight) {
+        this(upperRight, new SplittableRandom());
+    }
+
+    public Globe(Vector2d upperRight, SplittableRandom random) {
+        this.random = random;
         this.lowerLeft = new Vector2d(0, 0);
         this.upperRight = upperRight;
+        this.columns = upperRight.getX() + 1;
+        this.rows = upperRight.getY() + 1;
+        this.positions = new Vector2d[columns * rows];
+    }
+
+    /**
+     * @return random source of the simulation running on this map, strips of a parallel epoch get splits of it.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Replaces the random source with a new one seeded with the given seed, so the rest of the run
+     * depends only on the seed and not on the state of the old source, which can not be saved.
+     */
+    void reseed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return id for a new animal, unique among the animals of this map.
+     */
+    int nextAnimalId() {
+        return nextAnimalId++;
+    }
+
+    /**
+     * @return number of animal ids handed out so far.
+     */
+    int getIssuedAnimalIds() {
+        return nextAnimalId;
+    }
+
+    void setIssuedAnimalIds(int issued) {
+        this.nextAnimalId = issued;
+    }
+
+    /**
+     * @return family tree of the animals of this map.
+     */
+    public LineageGraph getLineage() {
+        return lineage;
     }
 
     public Move nextPosition(Move mv) {
         Vector2d newPos = mv.getPosition().add(mv.getOrientation());
         MapDirection newDir = mv.getDirection();
+        // wrap around the sides first, so a diagonal step at a pole corner stays on the map
+        if (newPos.getX() < 0) {
+            newPos = new Vector2d(upperRight.getX(), newPos.getY());
+        } else if (newPos.getX() > upperRight.getX()) {
+            newPos = new Vector2d(0, newPos.getY());
+        }
         if (newPos.getY() < 0) {
             return new Move(new Vector2d(newPos.getX(), 0), newDir.opposite());
         }
         if (newPos.getY() > upperRight.getY()) {
             return new Move(new Vector2d(newPos.getX(), upperRight.getY()), newDir.opposite());
         }
-        if (newPos.getX() < 0) {
-            return new Move(new Vector2d(upperRight.getX(), newPos.getY()), newDir);
+        return new Move(newPos, newDir);
+    }
+
+    /**
+     * Allocation free version of {@link #nextPosition(Move)} working on cell indices
+     * ({@code y * columns + x}) and direction ordinals.
+     *
+     * @return the new cell and direction packed into one value, read them with
+     * {@link #stepCell(long)} and {@link #stepDirection(long)}.
+     */
+    public long nextStep(int cell, int direction) {
+        int x = cell % columns + DX[direction];
+        int y = cell / columns + DY[direction];
+        if (x < 0) {
+            x = columns - 1;
+        } else if (x >= columns) {
+            x = 0;
         }
-        if (newPos.getX() > upperRight.getX()) {
-            return new Move(new Vector2d(0, newPos.getY()), newDir);
+        if (y < 0 || y >= rows) {
+            y = y < 0 ? 0 : rows - 1;
+            direction = (direction + MapDirection.count() / 2) % MapDirection.count();
         }
-        return new Move(newPos, newDir);
+        return ((long) (y * columns + x) << DIRECTION_BITS) | direction;
+    }
+
+    public static int stepCell(long step) {
+        return (int) (step >>> DIRECTION_BITS);
+    }
+
+    public static int stepDirection(long step) {
+        return (int) (step & DIRECTION_MASK);
+    }
+
+    public int cellOf(Vector2d position) {
+        return position.getY() * columns + position.getX();
+    }
+
+    public Vector2d positionOf(int cell) {
+        Vector2d position = positions[cell];
+        if (position == null) {
+            position = new Vector2d(cell % columns, cell / columns);
+            positions[cell] = position;
+        }
+        return position;
     }
 
     @Override
@@ -1,13 +1,35 @@
 package agh.ics.oop.model;
 
+import agh.ics.oop.model.variants.EStorageVariant;
+
 import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public class GrassField extends AbstractWorldMap {
 
     public GrassField(int width, int height, int n) {
-        super(width, height);
-        this.addObserver(new ConsoleMapDisplay());
-        this.addObserver(new FileMapDisplay(this.uuid));
+        this(width, height, n, EStorageVariant.HASH);
+    }
+
+    public GrassField(int width, int height, int n, EStorageVariant storageVariant) {
+        this(width, height, n, null, storageVariant);
+    }
+
+    public GrassField(int width, int height, int n, List<MapChangeListener> injectedObservers, EStorageVariant storageVariant) {
+        this(width, height, n, injectedObservers, storageVariant, new SplittableRandom());
+    }
+
+    public GrassField(int width, int height, int n, List<MapChangeListener> injectedObservers, EStorageVariant storageVariant, SplittableRandom random) {
+        super(width, height, storageVariant, random);
+        if (injectedObservers != null) {
+            for (MapChangeListener observer : injectedObservers) {
+                this.addObserver(observer);
+            }
+        } else {
+            this.addObserver(new ConsoleMapDisplay());
+            this.addObserver(new FileMapDisplay(this.uuid));
+        }
     }
 
     public ArrayList<WorldElement> objectAt(Vector2d position) {
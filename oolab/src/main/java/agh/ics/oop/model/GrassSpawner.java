@@ -14,28 +14,23 @@ public class GrassSpawner {
     }
 
     public void spawnGrass(int n) {
+        FieldCounters fieldCounters = map.fieldCounters;
+        int availableInEquator = fieldCounters.getFreeInsideEquator();
+        int availableOutside = fieldCounters.getFreeOutsideEquator();
 
-        int availableInEquator = map.calculateFreeFieldsInsideEquator();
-        int equatorGrass = (int) Math.round(n * 0.8);
-        if((int) Math.round(n * 0.8) > availableInEquator){
-            equatorGrass = availableInEquator;
-        }
-
-        int otherGrass = n - equatorGrass;
+        int equatorGrass = Math.min((int) Math.round(n * 0.8), availableInEquator);
+        int otherGrass = Math.min(n - equatorGrass, availableOutside);
+        // whatever does not fit outside goes back to the equator
+        equatorGrass = Math.min(n - otherGrass, availableInEquator);
 
-        spawnGrassFromIterator(equatorGrass, randomPositionGenerator.generateInEquator(equator));
-        spawnGrassFromIterator(otherGrass, randomPositionGenerator.generateOutsideEquator(map, equator));
+        spawnGrassFromIterator(equatorGrass, randomPositionGenerator.generateFromPool(fieldCounters, fieldCounters.getEquatorPool()));
+        spawnGrassFromIterator(otherGrass, randomPositionGenerator.generateFromPool(fieldCounters, fieldCounters.getOutsidePool()));
     }
 
     private void spawnGrassFromIterator(int count, Iterator<Vector2d> iterator) {
-        int attempts = 0;
-        while (count > 0 && attempts < 20 * count) {
-            Vector2d position = iterator.next();
-            if (!map.hasGrass(position)) {
-                map.addGrass(new Grass(position));
-                count--;
-            }
-            attempts++;
+        while (count > 0 && iterator.hasNext()) {
+            map.addGrass(new Grass(iterator.next()));
+            count--;
         }
     }
 }
@@ -0,0 +1,415 @@
+package agh.ics.oop.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Cell storage backed by flat arrays indexed with {@code y * width + x}.
+ * Animal lists are allocated once per cell and reused between epochs, grass presence
+ * is kept in a bitset, so lookups never hash a Vector2d.
+ */
+public class GridCellStorage implements CellStorage {
+    private final int width;
+    private final int height;
+    private final ArrayList<Animal>[] cells;
+    // cells visible in the animals view, their list may be empty just like in the hash map
+    private final BitSet usedCells;
+    private final Grass[] grasses;
+    private final BitSet grassCells;
+    private final Map<Vector2d, ArrayList<Animal>> animalsView = new AnimalsView();
+    private final Map<Vector2d, Grass> grassView = new GrassView();
+    private CellStorageListener listener = new CellStorageListener() {};
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public GridCellStorage(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive.");
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = (ArrayList<Animal>[]) new ArrayList[width * height];
+        this.usedCells = new BitSet(width * height);
+        this.grasses = new Grass[width * height];
+        this.grassCells = new BitSet(width * height);
+    }
+
+    @Override
+    public void setListener(CellStorageListener listener) {
+        this.listener = listener;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int index(Vector2d position) {
+        return position.getY() * width + position.getX();
+    }
+
+    public Vector2d positionOf(int index) {
+        return new Vector2d(index % width, index / width);
+    }
+
+    public boolean inside(Vector2d position) {
+        return position.getX() >= 0 && position.getX() < width
+                && position.getY() >= 0 && position.getY() < height;
+    }
+
+    private ArrayList<Animal> cell(int index) {
+        ArrayList<Animal> animalsAtCell = cells[index];
+        if (animalsAtCell == null) {
+            animalsAtCell = new ArrayList<>(2);
+            cells[index] = animalsAtCell;
+        }
+        usedCells.set(index);
+        return animalsAtCell;
+    }
+
+    private int checkedIndex(Vector2d position) {
+        if (!inside(position)) {
+            throw new IllegalArgumentException("Position " + position + " is outside of the grid.");
+        }
+        return index(position);
+    }
+
+    @Override
+    public List<Animal> animalsAt(Vector2d position) {
+        if (!inside(position)) {
+            return null;
+        }
+        int index = index(position);
+        return usedCells.get(index) ? cells[index] : null;
+    }
+
+    @Override
+    public boolean hasAnimals(Vector2d position) {
+        List<Animal> animalsAtPosition = animalsAt(position);
+        return animalsAtPosition != null && !animalsAtPosition.isEmpty();
+    }
+
+    @Override
+    public void addAnimal(Animal animal) {
+        ArrayList<Animal> animalsAtCell = cell(checkedIndex(animal.getPosition()));
+        animalsAtCell.add(animal);
+        if (animalsAtCell.size() == 1) {
+            listener.animalsArrived(animal.getPosition());
+        }
+    }
+
+    @Override
+    public boolean removeAnimal(Vector2d position, Animal animal) {
+        List<Animal> animalsAtPosition = animalsAt(position);
+        if (animalsAtPosition == null || !animalsAtPosition.remove(animal)) {
+            return false;
+        }
+        if (animalsAtPosition.isEmpty()) {
+            listener.animalsLeft(position);
+        }
+        return true;
+    }
+
+    @Override
+    public void removeAnimalsIf(Predicate<Animal> filter) {
+        for (int i = usedCells.nextSetBit(0); i >= 0; i = usedCells.nextSetBit(i + 1)) {
+            if (cells[i].removeIf(filter) && cells[i].isEmpty()) {
+                listener.animalsLeft(positionOf(i));
+            }
+        }
+    }
+
+    @Override
+    public void clearAnimals() {
+        for (int i = usedCells.nextSetBit(0); i >= 0; i = usedCells.nextSetBit(i + 1)) {
+            boolean wasOccupied = !cells[i].isEmpty();
+            cells[i].clear();
+            usedCells.clear(i);
+            if (wasOccupied) {
+                listener.animalsLeft(positionOf(i));
+            }
+        }
+    }
+
+    /**
+     * Forgets the cells emptied by removeAnimalsIf, a new storage would not have them.
+     */
+    @Override
+    public void rebuild() {
+        for (int i = usedCells.nextSetBit(0); i >= 0; i = usedCells.nextSetBit(i + 1)) {
+            if (cells[i].isEmpty()) {
+                usedCells.clear(i);
+            }
+        }
+    }
+
+    @Override
+    public List<Animal> allAnimals() {
+        List<Animal> result = new ArrayList<>();
+        collectAnimals(result);
+        return result;
+    }
+
+    @Override
+    public void collectAnimals(List<Animal> target) {
+        for (int i = usedCells.nextSetBit(0); i >= 0; i = usedCells.nextSetBit(i + 1)) {
+            target.addAll(cells[i]);
+        }
+    }
+
+    @Override
+    public Grass grassAt(Vector2d position) {
+        return inside(position) ? grasses[index(position)] : null;
+    }
+
+    @Override
+    public void putGrass(Grass grass) {
+        int index = checkedIndex(grass.getPosition());
+        boolean added = grasses[index] == null;
+        grasses[index] = grass;
+        grassCells.set(index);
+        if (added) {
+            listener.grassAdded(grass.getPosition());
+        }
+    }
+
+    @Override
+    public Grass removeGrass(Vector2d position) {
+        if (!inside(position)) {
+            return null;
+        }
+        int index = index(position);
+        Grass grass = grasses[index];
+        grasses[index] = null;
+        grassCells.clear(index);
+        if (grass != null) {
+            listener.grassRemoved(position);
+        }
+        return grass;
+    }
+
+    @Override
+    public int grassCount() {
+        return grassCells.cardinality();
+    }
+
+    @Override
+    public Map<Vector2d, ArrayList<Animal>> animalsView() {
+        return animalsView;
+    }
+
+    @Override
+    public Map<Vector2d, Grass> grassView() {
+        return grassView;
+    }
+
+    private abstract class BitSetIterator<T> implements Iterator<T> {
+        private final BitSet bits;
+        private int next;
+        private int last = -1;
+
+        BitSetIterator(BitSet bits) {
+            this.bits = bits;
+            this.next = bits.nextSetBit(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = bits.nextSetBit(next + 1);
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            last = -1;
+        }
+
+        abstract T element(int index);
+
+        abstract void removeAt(int index);
+    }
+
+    private class AnimalsView extends AbstractMap<Vector2d, ArrayList<Animal>> {
+
+        @Override
+        public ArrayList<Animal> get(Object key) {
+            if (!(key instanceof Vector2d position) || !inside(position)) {
+                return null;
+            }
+            int index = index(position);
+            return usedCells.get(index) ? cells[index] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public ArrayList<Animal> put(Vector2d position, ArrayList<Animal> animals) {
+            int index = checkedIndex(position);
+            ArrayList<Animal> previous = usedCells.get(index) ? new ArrayList<>(cells[index]) : null;
+            boolean wasOccupied = previous != null && !previous.isEmpty();
+            ArrayList<Animal> animalsAtCell = cell(index);
+            if (animals != animalsAtCell) {
+                animalsAtCell.clear();
+                animalsAtCell.addAll(animals);
+            }
+            if (!wasOccupied && !animalsAtCell.isEmpty()) {
+                listener.animalsArrived(position);
+            } else if (wasOccupied && animalsAtCell.isEmpty()) {
+                listener.animalsLeft(position);
+            }
+            return previous;
+        }
+
+        @Override
+        public ArrayList<Animal> remove(Object key) {
+            ArrayList<Animal> animalsAtCell = get(key);
+            if (animalsAtCell == null) {
+                return null;
+            }
+            ArrayList<Animal> previous = new ArrayList<>(animalsAtCell);
+            removeCell(index((Vector2d) key));
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            clearAnimals();
+        }
+
+        @Override
+        public int size() {
+            return usedCells.cardinality();
+        }
+
+        private void removeCell(int index) {
+            boolean wasOccupied = !cells[index].isEmpty();
+            cells[index].clear();
+            usedCells.clear(index);
+            if (wasOccupied) {
+                listener.animalsLeft(positionOf(index));
+            }
+        }
+
+        @Override
+        public Set<Entry<Vector2d, ArrayList<Animal>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Vector2d, ArrayList<Animal>>> iterator() {
+                    return new BitSetIterator<>(usedCells) {
+                        @Override
+                        Entry<Vector2d, ArrayList<Animal>> element(int index) {
+                            return new SimpleImmutableEntry<>(positionOf(index), cells[index]);
+                        }
+
+                        @Override
+                        void removeAt(int index) {
+                            removeCell(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return usedCells.cardinality();
+                }
+            };
+        }
+    }
+
+    private class GrassView extends AbstractMap<Vector2d, Grass> {
+
+        @Override
+        public Grass get(Object key) {
+            return key instanceof Vector2d position ? grassAt(position) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Grass put(Vector2d position, Grass grass) {
+            Grass previous = grassAt(position);
+            int index = checkedIndex(position);
+            grasses[index] = grass;
+            grassCells.set(index);
+            if (previous == null) {
+                listener.grassAdded(position);
+            }
+            return previous;
+        }
+
+        @Override
+        public Grass remove(Object key) {
+            return key instanceof Vector2d position ? removeGrass(position) : null;
+        }
+
+        @Override
+        public void clear() {
+            for (int i = grassCells.nextSetBit(0); i >= 0; i = grassCells.nextSetBit(i + 1)) {
+                grasses[i] = null;
+                grassCells.clear(i);
+                listener.grassRemoved(positionOf(i));
+            }
+        }
+
+        @Override
+        public int size() {
+            return grassCount();
+        }
+
+        @Override
+        public Set<Entry<Vector2d, Grass>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Vector2d, Grass>> iterator() {
+                    return new BitSetIterator<>(grassCells) {
+                        @Override
+                        Entry<Vector2d, Grass> element(int index) {
+                            return new SimpleImmutableEntry<>(positionOf(index), grasses[index]);
+                        }
+
+                        @Override
+                        void removeAt(int index) {
+                            grasses[index] = null;
+                            grassCells.clear(index);
+                            listener.grassRemoved(positionOf(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return grassCount();
+                }
+            };
+        }
+    }
+}
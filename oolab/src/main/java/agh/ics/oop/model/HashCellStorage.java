@@ -0,0 +1,315 @@
+package agh.ics.oop.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class HashCellStorage implements CellStorage {
+    // replaced by rebuild, the views read the current ones
+    private Map<Vector2d, ArrayList<Animal>> animals = new HashMap<>();
+    private Map<Vector2d, Grass> grasses = new HashMap<>();
+    // lists of the empty cells dropped by rebuild, handed out again to new cells
+    private final ArrayDeque<ArrayList<Animal>> spareLists = new ArrayDeque<>();
+    private final Map<Vector2d, ArrayList<Animal>> animalsView = new AnimalsView();
+    private final Map<Vector2d, Grass> grassView = new GrassView();
+    private CellStorageListener listener = new CellStorageListener() {};
+
+    @Override
+    public void setListener(CellStorageListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public List<Animal> animalsAt(Vector2d position) {
+        return animals.get(position);
+    }
+
+    @Override
+    public boolean hasAnimals(Vector2d position) {
+        List<Animal> animalsAtPosition = animals.get(position);
+        return animalsAtPosition != null && !animalsAtPosition.isEmpty();
+    }
+
+    @Override
+    public void addAnimal(Animal animal) {
+        ArrayList<Animal> animalsAtPosition = animals.get(animal.getPosition());
+        if (animalsAtPosition == null) {
+            animalsAtPosition = spareLists.isEmpty() ? new ArrayList<>(2) : spareLists.pop();
+            animals.put(animal.getPosition(), animalsAtPosition);
+        }
+        animalsAtPosition.add(animal);
+        if (animalsAtPosition.size() == 1) {
+            listener.animalsArrived(animal.getPosition());
+        }
+    }
+
+    @Override
+    public boolean removeAnimal(Vector2d position, Animal animal) {
+        List<Animal> animalsAtPosition = animals.get(position);
+        if (animalsAtPosition == null || !animalsAtPosition.remove(animal)) {
+            return false;
+        }
+        if (animalsAtPosition.isEmpty()) {
+            listener.animalsLeft(position);
+        }
+        return true;
+    }
+
+    @Override
+    public void removeAnimalsIf(Predicate<Animal> filter) {
+        for (Map.Entry<Vector2d, ArrayList<Animal>> entry : animals.entrySet()) {
+            List<Animal> animalsAtPosition = entry.getValue();
+            if (animalsAtPosition.removeIf(filter) && animalsAtPosition.isEmpty()) {
+                listener.animalsLeft(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Empties the lists in place and keeps their entries, so animals coming back to a cell need no new map node.
+     * The entries are bounded by the cells of the map, {@link #rebuild()} drops the empty ones.
+     */
+    @Override
+    public void clearAnimals() {
+        for (Map.Entry<Vector2d, ArrayList<Animal>> entry : animals.entrySet()) {
+            ArrayList<Animal> animalsAtPosition = entry.getValue();
+            if (!animalsAtPosition.isEmpty()) {
+                animalsAtPosition.clear();
+                listener.animalsLeft(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * A hash map keeps the table size it once grew to, so its order depends on its history.
+     * The new maps are filled one entry at a time, as a new storage would be, and empty cells are dropped.
+     */
+    @Override
+    public void rebuild() {
+        Map<Vector2d, ArrayList<Animal>> rebuiltAnimals = new HashMap<>();
+        for (Map.Entry<Vector2d, ArrayList<Animal>> entry : animals.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                spareLists.push(entry.getValue());
+            } else {
+                rebuiltAnimals.put(entry.getKey(), entry.getValue());
+            }
+        }
+        animals = rebuiltAnimals;
+        Map<Vector2d, Grass> rebuiltGrasses = new HashMap<>();
+        for (Map.Entry<Vector2d, Grass> entry : grasses.entrySet()) {
+            rebuiltGrasses.put(entry.getKey(), entry.getValue());
+        }
+        grasses = rebuiltGrasses;
+    }
+
+    @Override
+    public List<Animal> allAnimals() {
+        return animals.values().stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public void collectAnimals(List<Animal> target) {
+        for (ArrayList<Animal> animalsAtPosition : animals.values()) {
+            target.addAll(animalsAtPosition);
+        }
+    }
+
+    @Override
+    public Grass grassAt(Vector2d position) {
+        return grasses.get(position);
+    }
+
+    @Override
+    public void putGrass(Grass grass) {
+        if (grasses.put(grass.getPosition(), grass) == null) {
+            listener.grassAdded(grass.getPosition());
+        }
+    }
+
+    @Override
+    public Grass removeGrass(Vector2d position) {
+        Grass grass = grasses.remove(position);
+        if (grass != null) {
+            listener.grassRemoved(position);
+        }
+        return grass;
+    }
+
+    @Override
+    public int grassCount() {
+        return grasses.size();
+    }
+
+    @Override
+    public Map<Vector2d, ArrayList<Animal>> animalsView() {
+        return animalsView;
+    }
+
+    @Override
+    public Map<Vector2d, Grass> grassView() {
+        return grassView;
+    }
+
+    private class AnimalsView extends AbstractMap<Vector2d, ArrayList<Animal>> {
+
+        @Override
+        public ArrayList<Animal> get(Object key) {
+            return animals.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return animals.containsKey(key);
+        }
+
+        @Override
+        public ArrayList<Animal> put(Vector2d position, ArrayList<Animal> animalsAtPosition) {
+            boolean wasOccupied = hasAnimals(position);
+            ArrayList<Animal> previous = animals.put(position, animalsAtPosition);
+            boolean isOccupied = !animalsAtPosition.isEmpty();
+            if (!wasOccupied && isOccupied) {
+                listener.animalsArrived(position);
+            } else if (wasOccupied && !isOccupied) {
+                listener.animalsLeft(position);
+            }
+            return previous;
+        }
+
+        @Override
+        public ArrayList<Animal> remove(Object key) {
+            ArrayList<Animal> previous = animals.remove(key);
+            if (previous != null && !previous.isEmpty()) {
+                listener.animalsLeft((Vector2d) key);
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            clearAnimals();
+        }
+
+        @Override
+        public int size() {
+            return animals.size();
+        }
+
+        @Override
+        public Set<Entry<Vector2d, ArrayList<Animal>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Vector2d, ArrayList<Animal>>> iterator() {
+                    Iterator<Entry<Vector2d, ArrayList<Animal>>> iterator = animals.entrySet().iterator();
+                    return new Iterator<>() {
+                        private Entry<Vector2d, ArrayList<Animal>> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Vector2d, ArrayList<Animal>> next() {
+                            last = iterator.next();
+                            return new SimpleImmutableEntry<>(last);
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                            if (!last.getValue().isEmpty()) {
+                                listener.animalsLeft(last.getKey());
+                            }
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return animals.size();
+                }
+            };
+        }
+    }
+
+    private class GrassView extends AbstractMap<Vector2d, Grass> {
+
+        @Override
+        public Grass get(Object key) {
+            return grasses.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return grasses.containsKey(key);
+        }
+
+        @Override
+        public Grass put(Vector2d position, Grass grass) {
+            Grass previous = grasses.put(position, grass);
+            if (previous == null) {
+                listener.grassAdded(position);
+            }
+            return previous;
+        }
+
+        @Override
+        public Grass remove(Object key) {
+            return key instanceof Vector2d position ? removeGrass(position) : null;
+        }
+
+        @Override
+        public void clear() {
+            List<Vector2d> positions = new ArrayList<>(grasses.keySet());
+            grasses.clear();
+            positions.forEach(listener::grassRemoved);
+        }
+
+        @Override
+        public int size() {
+            return grasses.size();
+        }
+
+        @Override
+        public Set<Entry<Vector2d, Grass>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Vector2d, Grass>> iterator() {
+                    Iterator<Entry<Vector2d, Grass>> iterator = grasses.entrySet().iterator();
+                    return new Iterator<>() {
+                        private Entry<Vector2d, Grass> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Vector2d, Grass> next() {
+                            last = iterator.next();
+                            return new SimpleImmutableEntry<>(last);
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                            listener.grassRemoved(last.getKey());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return grasses.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package agh.ics.oop.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Family tree of the animals of one map, kept as arrays of parent ids indexed by animal id.
+ * A child always gets a higher id than its parents, so the descendants of an animal are found
+ * with one forward scan from its id, and the descendants of the tracked animal are counted on every birth.
+ * Animals older than the oldest living one can not get new descendants, so they are dropped
+ * and the arrays only cover the ids from the oldest living (or tracked) animal on. This is a window over the ids,
+ * not a pruning of extinct lineages: a dead animal younger than the oldest living one is kept even when none of its
+ * descendants lives, so the graph holds every animal born during the life of the oldest living animal
+ * and its size is bounded by the longest lifespan, not by the population.
+ * Methods are synchronized, births come from the simulation thread and counts are read by the UI.
+ */
+public class LineageGraph {
+    public static final int NO_PARENT = -1;
+
+    private static final byte ALIVE = 1;
+    // descendant of the tracked animal
+    private static final byte FAMILY = 2;
+    // compact only once enough ids are dropped, so the copying stays amortized O(1) per animal
+    private static final int MIN_COMPACTION = 1024;
+
+    // id stored at index 0 of the arrays
+    private int firstId = 0;
+    // one past the highest stored id
+    private int endId = 0;
+    private int oldestAlive = 0;
+    private int[] parent1 = new int[64];
+    private int[] parent2 = new int[64];
+    private byte[] flags = new byte[64];
+
+    private int tracked = NO_PARENT;
+    private int trackedDescendants = 0;
+
+    /**
+     * Adds a living animal, parents are {@link #NO_PARENT} for an animal that was not born on the map.
+     */
+    public synchronized void born(int id, int parent1Id, int parent2Id) {
+        if (id < endId) {
+            throw new IllegalArgumentException("Animal " + id + " is already in the lineage");
+        }
+        ensureCapacity(id + 1 - firstId);
+        for (int i = endId; i < id; i++) {
+            // ids handed out to animals that were never registered
+            parent1[i - firstId] = NO_PARENT;
+            parent2[i - firstId] = NO_PARENT;
+            flags[i - firstId] = 0;
+        }
+        int index = id - firstId;
+        parent1[index] = parent1Id;
+        parent2[index] = parent2Id;
+        flags[index] = ALIVE;
+        if (tracked != NO_PARENT && (isFamily(parent1Id) || isFamily(parent2Id))) {
+            flags[index] |= FAMILY;
+            trackedDescendants++;
+        }
+        endId = id + 1;
+    }
+
+    public synchronized void died(int id) {
+        if (id < firstId || id >= endId) {
+            return;
+        }
+        flags[id - firstId] &= ~ALIVE;
+        while (oldestAlive < endId && (flags[oldestAlive - firstId] & ALIVE) == 0) {
+            oldestAlive++;
+        }
+        prune();
+    }
+
+    private void prune() {
+        int keepFrom = tracked != NO_PARENT ? Math.min(oldestAlive, tracked) : oldestAlive;
+        int dropped = keepFrom - firstId;
+        if (dropped < MIN_COMPACTION || dropped < (endId - firstId) / 2) {
+            return;
+        }
+        int kept = endId - keepFrom;
+        System.arraycopy(parent1, dropped, parent1, 0, kept);
+        System.arraycopy(parent2, dropped, parent2, 0, kept);
+        System.arraycopy(flags, dropped, flags, 0, kept);
+        firstId = keepFrom;
+        if (parent1.length > 4 * Math.max(kept, 16)) {
+            int capacity = 2 * Math.max(kept, 16);
+            parent1 = Arrays.copyOf(parent1, capacity);
+            parent2 = Arrays.copyOf(parent2, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > parent1.length) {
+            int capacity = Math.max(size, parent1.length * 2);
+            parent1 = Arrays.copyOf(parent1, capacity);
+            parent2 = Arrays.copyOf(parent2, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+    }
+
+    private boolean isFamily(int id) {
+        return id == tracked || (id >= firstId && id < endId && (flags[id - firstId] & FAMILY) != 0);
+    }
+
+    /**
+     * Starts counting the descendants of the animal on every birth, only one animal is tracked at a time.
+     */
+    public synchronized void track(int id) {
+        tracked = id;
+        trackedDescendants = 0;
+        for (int i = 0; i < endId - firstId; i++) {
+            flags[i] &= ~FAMILY;
+        }
+        for (int child = Math.max(id + 1, firstId); child < endId; child++) {
+            int index = child - firstId;
+            if (isFamily(parent1[index]) || isFamily(parent2[index])) {
+                flags[index] |= FAMILY;
+                trackedDescendants++;
+            }
+        }
+    }
+
+    public synchronized void untrack() {
+        tracked = NO_PARENT;
+    }
+
+    /**
+     * @return number of distinct descendants, counted with a scan over the younger animals
+     * unless the animal is tracked. Animals already dropped from the graph have 0.
+     */
+    public synchronized int countDescendants(int id) {
+        if (id == tracked) {
+            return trackedDescendants;
+        }
+        return countDescendants(new int[]{id})[0];
+    }
+
+    /**
+     * Counts the descendants of many animals in one forward scan. Every animal in the scanned range
+     * gets the set of requested animals it descends from, which costs one bit per requested animal,
+     * kept in one flat array.
+     *
+     * @param ids distinct ids of the animals to count for.
+     * @return number of distinct descendants of each animal, in the order of the ids.
+     */
+    public synchronized int[] countDescendants(int[] ids) {
+        int[] counts = new int[ids.length];
+        int start = endId;
+        for (int id : ids) {
+            if (id >= firstId && id < endId) {
+                start = Math.min(start, id);
+            }
+        }
+        if (start == endId) {
+            return counts;
+        }
+
+        int words = (ids.length + Long.SIZE - 1) / Long.SIZE;
+        int[] requested = new int[endId - start];
+        Arrays.fill(requested, -1);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] >= start && ids[i] < endId) {
+                requested[ids[i] - start] = i;
+            }
+        }
+        // requested animals each animal descends from, words per animal starting at (id - start) * words
+        long[] ancestors = new long[(endId - start) * words];
+        for (int id = start; id < endId; id++) {
+            int index = id - firstId;
+            int offset = (id - start) * words;
+            inheritFrom(ancestors, offset, parent1[index], start, requested, words);
+            inheritFrom(ancestors, offset, parent2[index], start, requested, words);
+            for (int word = 0; word < words; word++) {
+                long bits = ancestors[offset + word];
+                while (bits != 0) {
+                    counts[word * Long.SIZE + Long.numberOfTrailingZeros(bits)]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static void inheritFrom(long[] ancestors, int offset, int parent, int start, int[] requested, int words) {
+        if (parent < start) {
+            return;
+        }
+        int parentOffset = (parent - start) * words;
+        for (int word = 0; word < words; word++) {
+            ancestors[offset + word] |= ancestors[parentOffset + word];
+        }
+        int parentRequest = requested[parent - start];
+        if (parentRequest >= 0) {
+            ancestors[offset + parentRequest / Long.SIZE] |= 1L << (parentRequest % Long.SIZE);
+        }
+    }
+
+    /**
+     * Writes the kept animals with their parents and whether they live, the tracked animal is not saved.
+     */
+    synchronized void save(ByteBuffer buffer) {
+        buffer.putInt(firstId);
+        buffer.putInt(endId);
+        buffer.putInt(oldestAlive);
+        for (int i = 0; i < endId - firstId; i++) {
+            buffer.putInt(parent1[i]);
+            buffer.putInt(parent2[i]);
+            buffer.put((byte) (flags[i] & ALIVE));
+        }
+    }
+
+    /**
+     * Replaces the graph with the one written by {@link #save}.
+     */
+    synchronized void load(ByteBuffer buffer) {
+        firstId = buffer.getInt();
+        endId = buffer.getInt();
+        oldestAlive = buffer.getInt();
+        int size = endId - firstId;
+        parent1 = new int[Math.max(size, 64)];
+        parent2 = new int[Math.max(size, 64)];
+        flags = new byte[Math.max(size, 64)];
+        for (int i = 0; i < size; i++) {
+            parent1[i] = buffer.getInt();
+            parent2[i] = buffer.getInt();
+            flags[i] = buffer.get();
+        }
+        tracked = NO_PARENT;
+        trackedDescendants = 0;
+    }
+
+    /**
+     * @return number of animals the graph keeps, living ones and the dead ones younger than the oldest living.
+     */
+    public synchronized int size() {
+        return endId - firstId;
+    }
+}
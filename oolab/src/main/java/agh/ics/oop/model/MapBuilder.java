@@ -1,16 +1,42 @@
 package agh.ics.oop.model;
 
 import agh.ics.oop.model.variants.EMapVariant;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
 public class MapBuilder {
 
     public MapBuilder() {
     }
     
     public AbstractWorldMap createMap(WorldConfig config) {
+        return createMap(config, null);
+    }
+
+    /**
+     * @param observers observers of the new map, null attaches the default console and file displays.
+     */
+    public AbstractWorldMap createMap(WorldConfig config, List<MapChangeListener> observers) {
+        return createMap(config, observers, config.createRandom());
+    }
+
+    /**
+     * @param random random source of the simulation, every random decision on the map is drawn from it.
+     */
+    public AbstractWorldMap createMap(WorldConfig config, List<MapChangeListener> observers, SplittableRandom random) {
+        List<MapChangeListener> injected = observers != null ? observers : List.of();
+        AbstractWorldMap map;
         if(config.getMapVariant() == EMapVariant.FIRE) {
-            return new FireWorldMap(config.getMapWidth(), config.getMapHeight(), config.getInitialPlantCount());
+            map = new FireWorldMap(config.getMapWidth(), config.getMapHeight(), config.getInitialPlantCount(), injected, config.getStorageVariant(), random);
         } else {
-            return new GrassField(config.getMapWidth(), config.getMapHeight(), config.getInitialPlantCount());
+            map = new GrassField(config.getMapWidth(), config.getMapHeight(), config.getInitialPlantCount(), injected, config.getStorageVariant(), random);
+        }
+        if (observers == null) {
+            // the file display takes its log settings from the config
+            map.addObserver(new ConsoleMapDisplay());
+            map.addObserver(new FileMapDisplay(map.getId(), config));
         }
+        return map;
     }
 }
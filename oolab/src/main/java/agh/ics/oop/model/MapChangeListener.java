@@ -3,4 +3,23 @@ package agh.ics.oop.model;
 public interface MapChangeListener {
 
     void mapChanged(WorldMap worldMap, String message);
-}
\ No newline at end of file
+
+    /**
+     * Receives the changes of a map publishing through a {@link MapEventBus}, called on the bus thread
+     * while the simulation already runs the next epoch. By default reported as one {@link #mapChanged} call,
+     * listeners drawing the map have to override it and use {@link MapDelta#getMapText()} instead.
+     */
+    default void deltaPublished(WorldMap worldMap, MapDelta delta) {
+        mapChanged(worldMap, delta.toString());
+    }
+
+    /**
+     * Asked on the simulation thread when a {@link MapEventBus} ends a batch, the map is drawn into the delta
+     * only when some listener answers true, as drawing holds up the simulation.
+     *
+     * @param batch number of the batch, counted from 1.
+     */
+    default boolean needsMapText(long batch) {
+        return false;
+    }
+}
@@ -0,0 +1,112 @@
+package agh.ics.oop.model;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Changes of a map collected over one or more epochs by a {@link MapEventBus}.
+ * A delta is filled by the simulation thread and is not changed once it is handed to the listeners.
+ * Changes are kept per cell, so a delta merged over many epochs stays within the size of the map.
+ */
+public class MapDelta {
+    private final Set<Vector2d> firesAdded = new LinkedHashSet<>();
+    // cells a fire started in or an animal was born or died in
+    private final Set<Vector2d> changedCells = new LinkedHashSet<>();
+    private int births = 0;
+    private int deaths = 0;
+    private int epochs = 0;
+    private String message = "";
+    // null when no listener needed the map drawn
+    private String mapText;
+
+    void fireAdded(Vector2d position) {
+        firesAdded.add(position);
+        changedCells.add(position);
+    }
+
+    void animalBorn(Vector2d position) {
+        births++;
+        changedCells.add(position);
+    }
+
+    void animalDied(Vector2d position) {
+        deaths++;
+        changedCells.add(position);
+    }
+
+    /**
+     * Closes the batch of one epoch.
+     *
+     * @param mapText the map drawn at the end of the epoch, before the simulation goes on changing it,
+     *                null when it was not drawn.
+     */
+    void end(String message, String mapText) {
+        this.message = message;
+        this.mapText = mapText;
+        epochs++;
+    }
+
+    /**
+     * Adds the changes of a later delta, used when the listeners have not caught up with this one yet.
+     */
+    void merge(MapDelta later) {
+        firesAdded.addAll(later.firesAdded);
+        changedCells.addAll(later.changedCells);
+        births += later.births;
+        deaths += later.deaths;
+        epochs += later.epochs;
+        message = later.message;
+        if (mapText == null) {
+            mapText = later.mapText;
+        }
+    }
+
+    /**
+     * @return cells a fire started in, each once, in the order the fires started.
+     */
+    public Set<Vector2d> getFiresAdded() {
+        return Collections.unmodifiableSet(firesAdded);
+    }
+
+    public Set<Vector2d> getChangedCells() {
+        return Collections.unmodifiableSet(changedCells);
+    }
+
+    public int getBirths() {
+        return births;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    /**
+     * @return number of epochs merged into this delta, more than 1 when the listeners fell behind.
+     */
+    public int getEpochs() {
+        return epochs;
+    }
+
+    /**
+     * @return message of the last epoch in the delta.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the map drawn at the end of the first epoch in the delta it was drawn for, null when no listener
+     * asked for it with {@link MapChangeListener#needsMapText(long)}. Listeners must use it instead of drawing
+     * the map themselves, as the simulation changes the map while they run.
+     */
+    public String getMapText() {
+        return mapText;
+    }
+
+    @Override
+    public String toString() {
+        return message + " (epochs: " + epochs + ", fires added: " + firesAdded.size()
+                + ", births: " + births + ", deaths: " + deaths + ")";
+    }
+}
@@ -1,5 +1,7 @@
 package agh.ics.oop.model;
 
+import java.util.random.RandomGenerator;
+
 public enum MapDirection {
     NORTH("1", new Vector2d(0, 1)),
     NORTHEAST("2", new Vector2d(1, 1)),
@@ -10,6 +12,9 @@ public enum MapDirection {
     WEST("7", new Vector2d(-1, 0)),
     NORTHWEST("8", new Vector2d(-1, 1));
 
+    // values() clones the array on every call, so the hot paths use this copy
+    private static final MapDirection[] VALUES = values();
+
     private final String name;
     private final Vector2d unitVector;
 
@@ -18,8 +23,16 @@ public enum MapDirection {
         this.unitVector = unitVector;
     }
 
-    public static MapDirection randomDirection() {
-        return MapDirection.values()[(int) (Math.random() * MapDirection.values().length)];
+    public static MapDirection randomDirection(RandomGenerator random) {
+        return VALUES[random.nextInt(VALUES.length)];
+    }
+
+    public static MapDirection fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static int count() {
+        return VALUES.length;
     }
 
     @Override
@@ -28,18 +41,15 @@ public enum MapDirection {
     }
 
     public MapDirection next() {
-        MapDirection[] directions = MapDirection.values();
-        return directions[(this.ordinal() + 1) % directions.length];
+        return VALUES[(this.ordinal() + 1) % VALUES.length];
     }
 
     public MapDirection useGene(int x) {
-        MapDirection[] directions = MapDirection.values();
-        return directions[(this.ordinal() + x) % directions.length];
+        return VALUES[(this.ordinal() + x) % VALUES.length];
     }
 
     public MapDirection previous() {
-        MapDirection[] directions = MapDirection.values();
-        return directions[(this.ordinal() + directions.length - 1) % directions.length];
+        return VALUES[(this.ordinal() + VALUES.length - 1) % VALUES.length];
     }
 
     public Vector2d toUnitVector() {
@@ -47,6 +57,6 @@ public enum MapDirection {
     }
 
     public MapDirection opposite() {
-        return MapDirection.values()[(this.ordinal() + 4) % MapDirection.values().length];
+        return VALUES[(this.ordinal() + 4) % VALUES.length];
     }
 }
@@ -0,0 +1,131 @@
+package agh.ics.oop.model;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the changes of a map during an epoch and hands them to the map's listeners as one {@link MapDelta},
+ * on a thread of its own so a slow listener does not hold up the simulation.
+ * At most one delta waits for delivery: an epoch ending while the listeners are still busy is merged into
+ * the waiting delta instead of queueing up, so the listeners skip epochs rather than the simulation waiting.
+ * The map is drawn on the simulation thread when an epoch ends and a listener needs it, the listeners never read
+ * the map itself. A batch merged into a delta that already holds a drawing is not drawn again.
+ */
+public class MapEventBus implements AutoCloseable {
+    private final WorldMap map;
+    private final List<MapChangeListener> listeners;
+    private final ExecutorService executor;
+    // filled by the simulation thread only
+    private MapDelta current = new MapDelta();
+
+    private final Object lock = new Object();
+    // delta waiting for delivery, guarded by the lock
+    private MapDelta pending;
+    private long published = 0;
+    private long merged = 0;
+
+    /**
+     * @param listeners listeners to deliver to, read on the delivery thread so the list has to be thread safe.
+     */
+    public MapEventBus(WorldMap map, List<MapChangeListener> listeners) {
+        this.map = map;
+        this.listeners = listeners;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "map-events-" + map.getId());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void fireAdded(Vector2d position) {
+        current.fireAdded(position);
+    }
+
+    public void animalBorn(Vector2d position) {
+        current.animalBorn(position);
+    }
+
+    public void animalDied(Vector2d position) {
+        current.animalDied(position);
+    }
+
+    /**
+     * Ends the current batch and schedules its delivery, returns without waiting for the listeners.
+     */
+    public void publish(String message) {
+        synchronized (lock) {
+            published++;
+            boolean drawn = pending != null && pending.getMapText() != null;
+            // the delivery thread waits for the drawing only when it is about to take the delta
+            current.end(message, !drawn && needsMapText(published) ? map.toString() : null);
+            if (pending == null) {
+                pending = current;
+                executor.execute(this::deliver);
+            } else {
+                pending.merge(current);
+                merged++;
+            }
+        }
+        current = new MapDelta();
+    }
+
+    private boolean needsMapText(long batch) {
+        for (MapChangeListener listener : listeners) {
+            if (listener.needsMapText(batch)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deliver() {
+        MapDelta delta;
+        synchronized (lock) {
+            delta = pending;
+            pending = null;
+        }
+        for (MapChangeListener listener : listeners) {
+            try {
+                listener.deltaPublished(map, delta);
+            } catch (RuntimeException e) {
+                System.err.println("Map listener failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * @return number of batches published so far.
+     */
+    public long getPublished() {
+        synchronized (lock) {
+            return published;
+        }
+    }
+
+    /**
+     * @return number of batches merged into a waiting one because the listeners were busy.
+     */
+    public long getMerged() {
+        synchronized (lock) {
+            return merged;
+        }
+    }
+
+    /**
+     * Delivers the waiting delta and stops the delivery thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package agh.ics.oop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs the animal phases of an epoch on a ForkJoinPool.
+ * The map is cut into horizontal strips, every strip is processed by its own task which only
+ * reads the storage and changes its own animals. Storage changes (moved animals, eaten grass,
+ * newborns) are collected per strip and applied afterwards in strip order, so the result does not
+ * depend on thread scheduling. Reproduction itself is applied sequentially as well, since it
+ * updates the ancestors of both parents, which may live in any strip.
+ * Every strip task of a phase drawing random numbers gets its own split of the map's random source,
+ * split in strip order, so a seeded run with the same number of threads always gives the same result.
+ * The pool is shut down by {@link #close()} once the simulation stops.
+ */
+public class ParallelEpoch implements AutoCloseable {
+    private final AbstractWorldMap map;
+    private final ForkJoinPool pool;
+    private final int rows;
+    private final int strips;
+
+    public ParallelEpoch(AbstractWorldMap map, int threads) {
+        this.map = map;
+        this.pool = new ForkJoinPool(threads);
+        this.rows = map.getCurrentBounds().upperRight().getY() - map.getCurrentBounds().lowerLeft().getY() + 1;
+        // a few strips per thread to keep the threads busy when animals are not spread evenly
+        this.strips = Math.max(1, Math.min(rows, threads * 4));
+    }
+
+    public int getStrips() {
+        return strips;
+    }
+
+    private int stripOf(Vector2d position) {
+        return (position.getY() - map.getCurrentBounds().lowerLeft().getY()) * strips / rows;
+    }
+
+    private List<List<Map.Entry<Vector2d, ArrayList<Animal>>>> partition() {
+        List<List<Map.Entry<Vector2d, ArrayList<Animal>>>> cells = new ArrayList<>(strips);
+        for (int i = 0; i < strips; i++) {
+            cells.add(new ArrayList<>());
+        }
+        for (Map.Entry<Vector2d, ArrayList<Animal>> entry : map.storage.animalsView().entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                cells.get(stripOf(entry.getKey())).add(entry);
+            }
+        }
+        return cells;
+    }
+
+    private <T> List<T> runStrips(Function<List<Map.Entry<Vector2d, ArrayList<Animal>>>, T> task) {
+        List<Callable<T>> tasks = new ArrayList<>(strips);
+        for (List<Map.Entry<Vector2d, ArrayList<Animal>>> strip : partition()) {
+            tasks.add(() -> task.apply(strip));
+        }
+        return invoke(tasks);
+    }
+
+    private <T> List<T> runRandomStrips(BiFunction<List<Map.Entry<Vector2d, ArrayList<Animal>>>, SplittableRandom, T> task) {
+        List<Callable<T>> tasks = new ArrayList<>(strips);
+        for (List<Map.Entry<Vector2d, ArrayList<Animal>>> strip : partition()) {
+            SplittableRandom random = map.getRandom().split();
+            tasks.add(() -> task.apply(strip, random));
+        }
+        return invoke(tasks);
+    }
+
+    private <T> List<T> invoke(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(strips);
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            results.add(future.resultNow());
+        }
+        return results;
+    }
+
+    public List<Animal> removeDeadAnimals() {
+        List<List<Animal>> deadPerStrip = runStrips(strip -> {
+            List<Animal> dead = new ArrayList<>();
+            for (Map.Entry<Vector2d, ArrayList<Animal>> cell : strip) {
+                for (Animal animal : cell.getValue()) {
+                    if (animal.isDead()) {
+                        dead.add(animal);
+                    }
+                }
+            }
+            return dead;
+        });
+
+        List<Animal> dead = new ArrayList<>();
+        for (List<Animal> strip : deadPerStrip) {
+            for (Animal animal : strip) {
+                map.storage.removeAnimal(animal.getPosition(), animal);
+                dead.add(animal);
+            }
+        }
+        return dead;
+    }
+
+    /**
+     * @return number of animals moved.
+     */
+    public int moveAnimals() {
+        List<List<Animal>> movedPerStrip = runStrips(strip -> {
+            List<Animal> moved = new ArrayList<>();
+            for (Map.Entry<Vector2d, ArrayList<Animal>> cell : strip) {
+                for (Animal animal : cell.getValue()) {
+                    animal.move();
+                    moved.add(animal);
+                }
+            }
+            return moved;
+        });
+
+        map.storage.clearAnimals();
+        int moved = 0;
+        for (List<Animal> strip : movedPerStrip) {
+            for (Animal animal : strip) {
+                map.storage.addAnimal(animal);
+            }
+            moved += strip.size();
+        }
+        return moved;
+    }
+
+    /**
+     * @return number of plants eaten.
+     */
+    public int eatGrass() {
+        List<List<Vector2d>> eatenPerStrip = runRandomStrips((strip, random) -> {
+            List<Vector2d> eaten = new ArrayList<>();
+            TieBreaker tieBreaker = new TieBreaker(random);
+            for (Map.Entry<Vector2d, ArrayList<Animal>> cell : strip) {
+                if (map.storage.grassAt(cell.getKey()) != null) {
+                    tieBreaker.selectTopTwo(cell.getValue());
+                    tieBreaker.getFirst().eatGrass();
+                    eaten.add(cell.getKey());
+                }
+            }
+            return eaten;
+        });
+
+        int eaten = 0;
+        for (List<Vector2d> strip : eatenPerStrip) {
+            strip.forEach(map.storage::removeGrass);
+            eaten += strip.size();
+        }
+        return eaten;
+    }
+
+    /**
+     * @return number of animals born.
+     */
+    public int reproduceAnimals() {
+        List<List<List<Animal>>> pairsPerStrip = runRandomStrips((strip, random) -> {
+            List<List<Animal>> pairs = new ArrayList<>();
+            TieBreaker tieBreaker = new TieBreaker(random);
+            for (Map.Entry<Vector2d, ArrayList<Animal>> cell : strip) {
+                if (cell.getValue().size() > 1) {
+                    tieBreaker.selectTopTwo(cell.getValue());
+                    if (tieBreaker.getSecond().canReproduce()) {
+                        pairs.add(List.of(tieBreaker.getFirst(), tieBreaker.getSecond()));
+                    }
+                }
+            }
+            return pairs;
+        });
+
+        int births = 0;
+        for (List<List<Animal>> strip : pairsPerStrip) {
+            for (List<Animal> pair : strip) {
+                map.addNewAnimal(pair.get(0).reproduce(pair.get(1)));
+            }
+            births += strip.size();
+        }
+        return births;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,226 @@
+package agh.ics.oop.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the state of the living animals that changes every epoch in parallel primitive arrays indexed by slot.
+ * An attached {@link Animal} is only a view reading and writing its slot, so moving the population
+ * is a linear scan over a few arrays instead of visiting one object graph per animal.
+ * When an animal dies its state is copied back into the animal and the slot is reused by the next newborn.
+ * Different slots may be written from different threads, adding and removing animals is single threaded.
+ */
+public class PopulationStore {
+    private final Globe globe;
+
+    private int[] cells;
+    private byte[] directions;
+    private int[] energies;
+    private int[] ages;
+    private int[] children;
+    // index of the next gene to use in the genome of the slot
+    private int[] geneIndexes;
+    private Genome[] genomes;
+    // view of every slot, null for a free slot
+    private Animal[] animals;
+
+    // animals with an energy listener, told about the energy lost in moveAll
+    private final List<Animal> watched = new ArrayList<>();
+
+    private int[] freeSlots;
+    private int freeCount = 0;
+    // slots below this one have been used at least once
+    private int slotCount = 0;
+    private int size = 0;
+
+    public PopulationStore(Globe globe, int capacity) {
+        this.globe = globe;
+        capacity = Math.max(capacity, 16);
+        this.cells = new int[capacity];
+        this.directions = new byte[capacity];
+        this.energies = new int[capacity];
+        this.ages = new int[capacity];
+        this.children = new int[capacity];
+        this.geneIndexes = new int[capacity];
+        this.genomes = new Genome[capacity];
+        this.animals = new Animal[capacity];
+        this.freeSlots = new int[capacity];
+    }
+
+    /**
+     * Copies the current state of the animal into a free slot, called by {@link Animal#attach(PopulationStore)}.
+     *
+     * @return slot of the animal.
+     */
+    int add(Animal animal) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == animals.length) {
+                grow();
+            }
+            slot = slotCount++;
+        }
+        cells[slot] = globe.cellOf(animal.getPosition());
+        directions[slot] = (byte) animal.getDirection().ordinal();
+        energies[slot] = animal.getEnergy();
+        ages[slot] = animal.getDaysLived();
+        children[slot] = animal.getChildren();
+        setGenome(slot, animal.getGenome());
+        animals[slot] = animal;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Frees the slot, the animal has already copied its state back.
+     */
+    void remove(int slot) {
+        watched.remove(animals[slot]);
+        animals[slot] = null;
+        genomes[slot] = null;
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    /**
+     * Moves the animals down to slots 0..size-1, keeping their order, and forgets the free slots.
+     * The slots then depend only on the animals and their order, not on which animals died before.
+     */
+    void compact() {
+        int next = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Animal animal = animals[slot];
+            if (animal == null) {
+                continue;
+            }
+            if (slot != next) {
+                cells[next] = cells[slot];
+                directions[next] = directions[slot];
+                energies[next] = energies[slot];
+                ages[next] = ages[slot];
+                children[next] = children[slot];
+                geneIndexes[next] = geneIndexes[slot];
+                genomes[next] = genomes[slot];
+                animals[next] = animal;
+                genomes[slot] = null;
+                animals[slot] = null;
+                animal.moveToSlot(next);
+            }
+            next++;
+        }
+        slotCount = next;
+        freeCount = 0;
+    }
+
+    private void grow() {
+        int capacity = animals.length * 2;
+        cells = Arrays.copyOf(cells, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        energies = Arrays.copyOf(energies, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        children = Arrays.copyOf(children, capacity);
+        geneIndexes = Arrays.copyOf(geneIndexes, capacity);
+        genomes = Arrays.copyOf(genomes, capacity);
+        animals = Arrays.copyOf(animals, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    /**
+     * Makes one step of the animal in the slot, see {@link Animal#move()}.
+     */
+    void move(int slot) {
+        Genome genome = genomes[slot];
+        int geneIndex = geneIndexes[slot];
+        int direction = (directions[slot] + genome.getGene(geneIndex)) % MapDirection.count();
+        geneIndexes[slot] = (geneIndex + 1) % genome.getLength();
+
+        long step = globe.nextStep(cells[slot], direction);
+        cells[slot] = Globe.stepCell(step);
+        directions[slot] = (byte) Globe.stepDirection(step);
+        ages[slot]++;
+        energies[slot]--;
+    }
+
+    /**
+     * Moves every animal of the store in slot order. Energy changes are not reported to the animals'
+     * observers, every animal loses one point of energy. Energy listeners are called after the scan.
+     *
+     * @return number of animals moved.
+     */
+    int moveAll() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (animals[slot] != null) {
+                move(slot);
+            }
+        }
+        for (int i = 0; i < watched.size(); i++) {
+            watched.get(i).notifyEnergyListener();
+        }
+        return size;
+    }
+
+    void watch(Animal animal, boolean watch) {
+        watched.remove(animal);
+        if (watch) {
+            watched.add(animal);
+        }
+    }
+
+    /**
+     * @return number of slots in use or freed, every living animal is in a lower slot.
+     */
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return animal in the slot, null for a free slot.
+     */
+    Animal getAnimal(int slot) {
+        return animals[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    Vector2d getPosition(int slot) {
+        return globe.positionOf(cells[slot]);
+    }
+
+    MapDirection getDirection(int slot) {
+        return MapDirection.fromOrdinal(directions[slot]);
+    }
+
+    int getEnergy(int slot) {
+        return energies[slot];
+    }
+
+    void setEnergy(int slot, int energy) {
+        energies[slot] = energy;
+    }
+
+    int getAge(int slot) {
+        return ages[slot];
+    }
+
+    int getChildren(int slot) {
+        return children[slot];
+    }
+
+    void setChildren(int slot, int childrenCount) {
+        children[slot] = childrenCount;
+    }
+
+    int getGeneIndex(int slot) {
+        return geneIndexes[slot];
+    }
+
+    void setGenome(int slot, Genome genome) {
+        genomes[slot] = genome;
+        geneIndexes[slot] = genome.getGeneIndex();
+    }
+}
@@ -1,13 +1,13 @@
 package agh.ics.oop.model;
 
 import java.util.Iterator;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class RandomPositionGenerator {
-    private final Random random;
+    private final RandomGenerator random;
 
-    public RandomPositionGenerator() {
-        this.random = new Random();
+    public RandomPositionGenerator(RandomGenerator random) {
+        this.random = random;
     }
 
     public Iterator<Vector2d> generateInEquator(Equator equator) {
@@ -48,6 +48,24 @@ public class RandomPositionGenerator {
         };
     }
 
+    /**
+     * Draws free fields straight from the pool, each draw is O(1) and never rejected.
+     * The pool is not modified, the drawn field leaves it once something is placed there.
+     */
+    public Iterator<Vector2d> generateFromPool(FieldCounters fieldCounters, FreeCellPool pool) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !pool.isEmpty();
+            }
+
+            @Override
+            public Vector2d next() {
+                return fieldCounters.positionOf(pool.randomCell(random));
+            }
+        };
+    }
+
     private Vector2d generateRandomPosition(Vector2d lowerLeft, Vector2d upperRight) {
         int x = random.nextInt(upperRight.getX() - lowerLeft.getX() + 1) + lowerLeft.getX();
         int y = random.nextInt(upperRight.getY() - lowerLeft.getY() + 1) + lowerLeft.getY();
@@ -1,7 +1,10 @@
 package agh.ics.oop.model;
 
+import agh.ics.oop.model.variants.EEpochCounter;
+import agh.ics.oop.model.variants.EEpochPhase;
 import agh.ics.oop.model.variants.EMapVariant;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -12,84 +15,227 @@ public class SimulationHelper {
     private final AbstractWorldMap map;
     private final WorldConfig config;
     private int epoch = 0;
+    // null when the epoch runs on the simulation thread only
+    private final ParallelEpoch parallelEpoch;
+    private final EpochMetrics metrics;
+    // recreated when a checkpoint reseeds the random source
+    private TieBreaker tieBreaker;
+    // animals taken out of their cells while they move, reused every epoch
+    private final ArrayList<Animal> moving = new ArrayList<>();
+    // null when the history is not written
+    private final SnapshotWriter snapshots;
+    // null when no checkpoints are written
+    private final CheckpointWriter checkpoints;
 
     public SimulationHelper(AbstractWorldMap map, WorldConfig config) {
         this.map = map;
         this.config = config;
         map.wObserver = new WorldObserver(map);
+        map.useDeadAnimalArchive(new DeadAnimalArchive(config.getDeadAnimalsInMemory(), deadAnimalLog(map, config)));
+        if (config.isPopulationStoreEnabled()) {
+            map.usePopulationStore(new PopulationStore(map, config.getInitialAnimalCount()));
+        }
+        if (config.isAsyncNotificationsEnabled()) {
+            map.useEventBus(new MapEventBus(map, map.observers));
+        }
+        this.parallelEpoch = config.getEpochThreads() > 1 ? new ParallelEpoch(map, config.getEpochThreads()) : null;
+        this.metrics = new EpochMetrics(config.isMetricsEnabled());
+        this.tieBreaker = new TieBreaker(map.getRandom());
+        Path snapshotFile = snapshotFile(map, config);
+        this.snapshots = snapshotFile != null ? new SnapshotWriter(snapshotFile, config) : null;
+        Path checkpointFile = checkpointFile(map, config);
+        this.checkpoints = checkpointFile != null ? new CheckpointWriter(checkpointFile) : null;
     }
 
     public void runEpoch() {
         newEpoch();
-        removeDeadAnimals();
+        metrics.epochStarted();
+        long start = metrics.startPhase();
+        metrics.count(EEpochCounter.DEATHS, removeDeadAnimals());
+        start = metrics.endPhase(EEpochPhase.REMOVE_DEAD, start);
         if (config.getMapVariant() == EMapVariant.FIRE) {
-            ((FireWorldMap) map).spreadFire(this.config.getFireMaxAge(), this.epoch % this.config.getFireFreq() == 0);
+            FireWorldMap fireMap = (FireWorldMap) map;
+            int burned = fireMap.spreadFire(this.config.getFireMaxAge(), this.epoch % this.config.getFireFreq() == 0);
+            metrics.count(EEpochCounter.CELLS_BURNED, burned);
+            metrics.count(EEpochCounter.DEATHS, fireMap.takeAnimalsBurned());
+            start = metrics.endPhase(EEpochPhase.FIRE, start);
+        }
+        if (parallelEpoch != null) {
+            metrics.count(EEpochCounter.ANIMALS_MOVED, parallelEpoch.moveAnimals());
+            start = metrics.endPhase(EEpochPhase.MOVE, start);
+            metrics.count(EEpochCounter.PLANTS_EATEN, parallelEpoch.eatGrass());
+            start = metrics.endPhase(EEpochPhase.EAT, start);
+            metrics.count(EEpochCounter.BIRTHS, parallelEpoch.reproduceAnimals());
+        } else {
+            metrics.count(EEpochCounter.ANIMALS_MOVED, moveAnimals());
+            start = metrics.endPhase(EEpochPhase.MOVE, start);
+            metrics.count(EEpochCounter.PLANTS_EATEN, eatGrass(map.getAnimalsMap(), map.getGrassesMap()));
+            start = metrics.endPhase(EEpochPhase.EAT, start);
+            metrics.count(EEpochCounter.BIRTHS, reproduceAnimals(map.getAnimalsMap()));
         }
-        moveAnimals();
-        eatGrass(map.getAnimalsMap(), map.getGrassesMap());
-        reproduceAnimals(map.getAnimalsMap());
+        start = metrics.endPhase(EEpochPhase.REPRODUCE, start);
         spawnGrass(config.getDailyGrassGrowth());
+        start = metrics.endPhase(EEpochPhase.SPAWN_GRASS, start);
+        if (checkpoints != null && epoch % config.getCheckpointInterval() == 0) {
+            writeCheckpoint();
+            start = metrics.endPhase(EEpochPhase.CHECKPOINT, start);
+        }
         gatherStats();
+        metrics.endPhase(EEpochPhase.STATS, start);
+        writeSnapshot();
         map.notifyObservers("Epoch " + this.epoch + " ended");
     }
 
+    private void writeSnapshot() {
+        if (snapshots != null) {
+            snapshots.write(epoch, map);
+        }
+    }
+
+    /**
+     * The random source can not be saved, so it is replaced by one seeded from it, and the orders the map keeps
+     * are made to depend only on its contents, see {@link Checkpoint}. Only the copy into a buffer happens
+     * on this thread, the file is written in the background.
+     */
+    private void writeCheckpoint() {
+        long seed = map.getRandom().nextLong();
+        map.reseed(seed);
+        tieBreaker = new TieBreaker(map.getRandom());
+        map.storage.rebuild();
+        if (map.getPopulation() != null) {
+            map.getPopulation().compact();
+        }
+        map.wObserver.rebuildGenomePool();
+        if (snapshots != null) {
+            snapshots.genomesRenumbered();
+        }
+        checkpoints.write(epoch, map, config, seed);
+    }
+
+    /**
+     * Puts the state saved in the checkpoint on the map, which must have been created from its config,
+     * the next epoch continues the checkpointed run.
+     */
+    public void resume(Checkpoint checkpoint) {
+        checkpoint.restore(map);
+        this.epoch = checkpoint.getEpoch();
+        this.tieBreaker = new TieBreaker(map.getRandom());
+        writeSnapshot();
+    }
+
+    /**
+     * Closes the files and threads of the simulation once it stops running.
+     */
+    public void close() {
+        if (snapshots != null) {
+            snapshots.close();
+        }
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        if (parallelEpoch != null) {
+            parallelEpoch.close();
+        }
+        map.getDeadAnimalArchive().close();
+        if (map.getEventBus() != null) {
+            map.getEventBus().close();
+        }
+        map.closeObservers();
+    }
+
 
     private void newEpoch() {
         this.epoch++;
     }
 
-    private void removeDeadAnimals() {
-        map.getAnimalsMap().values().forEach(animalList -> {
-            animalList.removeIf(animal -> {
-                if (animal.isDead()) {
-                    map.getDeadAnimalsList().add(animal);
+    /**
+     * @return number of animals that died.
+     */
+    int removeDeadAnimals() {
+        if (parallelEpoch != null) {
+            List<Animal> dead = parallelEpoch.removeDeadAnimals();
+            for (Animal animal : dead) {
+                map.addDeadAnimal(animal);
+                if (animal.getStats() != null) {
+                    animal.getStats().die(epoch);
+                }
+            }
+            return dead.size();
+        }
+        List<Animal> dead = new ArrayList<>();
+        map.storage.removeAnimalsIf(animal -> {
+            if (animal.isDead()) {
+                dead.add(animal);
 
-                    if (animal.getStats() != null) {
-                        animal.getStats().die(epoch);
-                    }
-                    return true;
+                if (animal.getStats() != null) {
+                    animal.getStats().die(epoch);
                 }
-                return false;
-            });
+                return true;
+            }
+            return false;
         });
+        dead.forEach(map::addDeadAnimal);
+        return dead.size();
     }
 
 
-    private void moveAnimals() {
-        Map<Vector2d, ArrayList<Animal>> updatedMap = new HashMap<>();
-
-        for (Map.Entry<Vector2d, ArrayList<Animal>> entry : map.getAnimalsMap().entrySet()) {
-            List<Animal> animalsAtCurrentPosition = entry.getValue();
+    int moveAnimals() {
+        PopulationStore population = map.getPopulation();
+        if (population != null) {
+            return moveStoredAnimals(population);
+        }
+        // the cells are emptied and refilled in place, so moving allocates only for cells never visited before
+        moving.clear();
+        map.storage.collectAnimals(moving);
+        map.storage.clearAnimals();
 
-            for (Animal animal : animalsAtCurrentPosition) {
-                animal.move();
-                // map.notifyObservers("Animal moved at " + animal.getPosition());
-                Vector2d newPosition = animal.getPosition();
-                updatedMap.computeIfAbsent(newPosition, k -> new ArrayList<>()).add(animal);
-            }
+        for (int i = 0; i < moving.size(); i++) {
+            Animal animal = moving.get(i);
+            animal.move();
+            map.storage.addAnimal(animal);
         }
-        map.animals = updatedMap;
+        int moved = moving.size();
+        moving.clear();
+        return moved;
     }
 
 
 
-    private void eatGrass(Map<Vector2d, ArrayList<Animal>> animals, Map<Vector2d, Grass> grasses) {
+    // the store moves everyone in one scan over its arrays, the cells are refilled in slot order
+    private int moveStoredAnimals(PopulationStore population) {
+        int moved = population.moveAll();
+        map.storage.clearAnimals();
+        for (int slot = 0; slot < population.getSlotCount(); slot++) {
+            Animal animal = population.getAnimal(slot);
+            if (animal != null) {
+                map.storage.addAnimal(animal);
+            }
+        }
+        if (map.wObserver != null) {
+            map.wObserver.energyChanged(-moved);
+        }
+        return moved;
+    }
+
+    int eatGrass(Map<Vector2d, ArrayList<Animal>> animals, Map<Vector2d, Grass> grasses) {
         List<Vector2d> matchingFields = animals.keySet().stream()
                 .filter(grasses::containsKey)
                 .collect(Collectors.toList());
 
+        int eaten = 0;
         for (Vector2d vector : matchingFields) {
             ArrayList<Animal> animalList = animals.get(vector);
             if (animalList != null && !animalList.isEmpty()) {
-                TieBreaker tb = new TieBreaker(animalList);
-                Animal strongestAnimal = tb.breakTheTie().getFirst();
-                strongestAnimal.eatGrass();
+                tieBreaker.selectTopTwo(animalList);
+                tieBreaker.getFirst().eatGrass();
                 grasses.remove(vector);
+                eaten++;
             }
         }
+        return eaten;
     }
 
-    private void reproduceAnimals(Map<Vector2d, ArrayList<Animal>> animals) {
+    int reproduceAnimals(Map<Vector2d, ArrayList<Animal>> animals) {
         List<Vector2d> matchingFields = animals.entrySet().stream()
                 .filter(entry -> entry.getValue().size() > 1)
                 .map(Map.Entry::getKey)
@@ -100,25 +246,55 @@ public class SimulationHelper {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
+        int births = 0;
         for (ArrayList<Animal> animalList : animalsToReproduce) {
-            TieBreaker tb = new TieBreaker(animalList);
-            List<Animal> strongestAnimals = tb.breakTheTie();
+            tieBreaker.selectTopTwo(animalList);
 
-            if (strongestAnimals.size() > 1 && strongestAnimals.get(1).canReproduce()) {
-                Animal offspring = strongestAnimals.get(0).reproduce(strongestAnimals.get(1));
+            if (tieBreaker.getSecond() != null && tieBreaker.getSecond().canReproduce()) {
+                Animal offspring = tieBreaker.getFirst().reproduce(tieBreaker.getSecond());
 
-                Vector2d position = strongestAnimals.get(0).getPosition();
-                animals.get(position).add(offspring);
+                map.addNewAnimal(offspring);
+                births++;
             }
         }
+        return births;
     }
 
-    private void spawnGrass(int n) {
+    void spawnGrass(int n) {
         map.spawnGrass(n);
     }
 
-    private void gatherStats() {
+    void gatherStats() {
         map.wObserver.update();
+        map.getDeadAnimalArchive().flush();
+    }
+
+    private static Path snapshotFile(AbstractWorldMap map, WorldConfig config) {
+        String dir = config.getSnapshotDir();
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return Path.of(dir).resolve("snapshot_" + map.getId() + ".bin");
+    }
+
+    private static Path checkpointFile(AbstractWorldMap map, WorldConfig config) {
+        String dir = config.getCheckpointDir();
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return Path.of(dir).resolve("checkpoint_" + map.getId() + ".bin");
+    }
+
+    private static Path deadAnimalLog(AbstractWorldMap map, WorldConfig config) {
+        String dir = config.getDeadAnimalLogDir();
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return Path.of(dir).resolve("dead_" + map.getId() + ".csv");
+    }
+
+    public EpochMetrics getMetrics() {
+        return metrics;
     }
 
     public Map<String, Object> getStats() {
@@ -131,19 +307,20 @@ public class SimulationHelper {
         int width = upperRight.getX() - lowerLeft.getX();
         int height = upperRight.getY() - lowerLeft.getY();
         List<Vector2d> startingPositions = new ArrayList<>();
+        SplittableRandom random = map.getRandom();
 
         for (int i = 0; i < animalsCount; i++) {
             Vector2d position = new Vector2d(
-                    lowerLeft.getX() + (int) (Math.random() * width),
-                    lowerLeft.getY() + (int) (Math.random() * height));
+                    lowerLeft.getX() + (int) (random.nextDouble() * width),
+                    lowerLeft.getY() + (int) (random.nextDouble() * height));
 
-            map.getAnimalsMap().computeIfAbsent(position, _ -> new ArrayList<>());
             Animal animal = new Animal(position, config, this.map);
-            map.getAnimalsMap().get(position).add(animal);
+            map.addNewAnimal(animal);
             startingPositions.add(position);
         }
         int map_size = config.getMapHeight() * config.getMapWidth();
         spawnGrass(min(config.getInitialPlantCount(), map_size - animalsCount));
+        writeSnapshot();
         return startingPositions;
     }
 }
@@ -0,0 +1,132 @@
+package agh.ics.oop.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Layout of the files written by {@link SnapshotWriter} and read by {@link SnapshotReader}.
+ * <pre>
+ * header: magic int, version short, length int, then varint option count and (key, value) strings
+ *         of the {@link WorldConfig}, as in a config file
+ * frame:  type byte, length int, then varint epoch and the changes since the previous frame:
+ *         grass cells added and removed, fire cells added and removed,
+ *         ids of the animals that died, animals born (id, cell, direction, energy, genome),
+ *         and for every other living animal, in id order, its cell change, direction and energy change
+ * </pre>
+ * Numbers are varints, changes that can be negative are zigzag encoded. Cell lists are sorted and stored
+ * as gaps, ids too. A genome is written once, later animals carrying it refer to its {@link GenomePool} id.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x45504F43;
+    static final short VERSION = 1;
+    static final byte EPOCH_FRAME = 1;
+    // type byte and length int in front of every frame
+    static final int FRAME_HEADER = 5;
+
+    private SnapshotFormat() {
+    }
+
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarInt(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[getVarInt(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the cells set in {@code now} but not in {@code before}, then the ones set only in {@code before}.
+     *
+     * @param scratch bit set the method may overwrite.
+     */
+    static void putCellChanges(ByteBuffer buffer, BitSet before, BitSet now, BitSet scratch) {
+        scratch.clear();
+        scratch.or(now);
+        scratch.andNot(before);
+        putCells(buffer, scratch);
+        scratch.clear();
+        scratch.or(before);
+        scratch.andNot(now);
+        putCells(buffer, scratch);
+    }
+
+    private static void putCells(ByteBuffer buffer, BitSet cells) {
+        putVarInt(buffer, cells.cardinality());
+        int previous = 0;
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            putVarInt(buffer, cell - previous);
+            previous = cell;
+        }
+    }
+
+    /**
+     * Applies the changes written by {@link #putCellChanges} to the cells.
+     */
+    static void applyCellChanges(ByteBuffer buffer, BitSet cells) {
+        for (boolean added : new boolean[]{true, false}) {
+            int count = getVarInt(buffer);
+            int cell = 0;
+            for (int i = 0; i < count; i++) {
+                cell += getVarInt(buffer);
+                cells.set(cell, added);
+            }
+        }
+    }
+
+    /**
+     * Two genes per byte, genes are 0..7.
+     */
+    static void putGenes(ByteBuffer buffer, int[] genes) {
+        putVarInt(buffer, genes.length);
+        for (int i = 0; i < genes.length; i += 2) {
+            int high = i + 1 < genes.length ? genes[i + 1] : 0;
+            buffer.put((byte) (genes[i] | high << 4));
+        }
+    }
+
+    static int[] getGenes(ByteBuffer buffer) {
+        int[] genes = new int[getVarInt(buffer)];
+        for (int i = 0; i < genes.length; i += 2) {
+            byte packed = buffer.get();
+            genes[i] = packed & 0xF;
+            if (i + 1 < genes.length) {
+                genes[i + 1] = (packed >> 4) & 0xF;
+            }
+        }
+        return genes;
+    }
+}
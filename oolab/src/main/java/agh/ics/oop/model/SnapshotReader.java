@@ -0,0 +1,223 @@
+package agh.ics.oop.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static agh.ics.oop.model.SnapshotFormat.*;
+
+/**
+ * Replays a file written by {@link SnapshotWriter}, {@link #next()} moves to the state at the end of the next epoch.
+ */
+public class SnapshotReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final WorldConfig config;
+    private final int columns;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    private int epoch = -1;
+    private final BitSet grass = new BitSet();
+    private final BitSet fires = new BitSet();
+    // living animals sorted by id
+    private int count = 0;
+    private int[] ids = new int[0];
+    private int[] cells = new int[0];
+    private byte[] directions = new byte[0];
+    private int[] energies = new int[0];
+    private int[][] genes = new int[0][];
+    private final Map<Integer, int[]> genomes = new HashMap<>();
+
+    public SnapshotReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = read(Integer.BYTES + Short.BYTES + Integer.BYTES);
+        if (header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("Not a snapshot file: " + file);
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported snapshot version " + version + " in " + file);
+        }
+        ByteBuffer options = read(header.getInt());
+        WorldConfig.Builder builder = new WorldConfig.Builder();
+        int optionCount = getVarInt(options);
+        for (int i = 0; i < optionCount; i++) {
+            WorldConfig.set(builder, getString(options), getString(options));
+        }
+        this.config = builder.build();
+        this.columns = config.getMapWidth() + 1;
+    }
+
+    private ByteBuffer read(int bytes) throws IOException {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+        }
+        buffer.clear().limit(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Snapshot ends in the middle of a frame");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * @return false when there are no more epochs.
+     */
+    public boolean next() throws IOException {
+        if (channel.position() == channel.size()) {
+            return false;
+        }
+        ByteBuffer header = read(FRAME_HEADER);
+        byte type = header.get();
+        int length = header.getInt();
+        ByteBuffer frame = read(length);
+        if (type != EPOCH_FRAME) {
+            // written by a newer version, skipped
+            return next();
+        }
+        epoch = getVarInt(frame);
+        applyCellChanges(frame, grass);
+        applyCellChanges(frame, fires);
+        readAnimals(frame);
+        return true;
+    }
+
+    private void readAnimals(ByteBuffer frame) {
+        int[] died = new int[getVarInt(frame)];
+        for (int i = 0, id = 0; i < died.length; i++) {
+            id += getVarInt(frame);
+            died[i] = id;
+        }
+        int born = getVarInt(frame);
+        int[] bornIds = new int[born];
+        int[] bornCells = new int[born];
+        byte[] bornDirections = new byte[born];
+        int[] bornEnergies = new int[born];
+        int[][] bornGenes = new int[born][];
+        for (int i = 0, id = 0; i < born; i++) {
+            id += getVarInt(frame);
+            bornIds[i] = id;
+            bornCells[i] = getVarInt(frame);
+            bornDirections[i] = frame.get();
+            bornEnergies[i] = unZigZag(getVarInt(frame));
+            bornGenes[i] = getGenome(frame);
+        }
+
+        int size = count - died.length + born;
+        int[] newIds = new int[size];
+        int[] newCells = new int[size];
+        byte[] newDirections = new byte[size];
+        int[] newEnergies = new int[size];
+        int[][] newGenes = new int[size][];
+        int before = 0;
+        int dead = 0;
+        int newborn = 0;
+        for (int now = 0; now < size; now++) {
+            while (dead < died.length && before < count && ids[before] == died[dead]) {
+                before++;
+                dead++;
+            }
+            if (newborn < born && (before == count || bornIds[newborn] < ids[before])) {
+                newIds[now] = bornIds[newborn];
+                newCells[now] = bornCells[newborn];
+                newDirections[now] = bornDirections[newborn];
+                newEnergies[now] = bornEnergies[newborn];
+                newGenes[now] = bornGenes[newborn];
+                newborn++;
+            } else {
+                newIds[now] = ids[before];
+                newCells[now] = cells[before] + unZigZag(getVarInt(frame));
+                newDirections[now] = frame.get();
+                newEnergies[now] = energies[before] + unZigZag(getVarInt(frame));
+                newGenes[now] = genes[before];
+                before++;
+            }
+        }
+        count = size;
+        ids = newIds;
+        cells = newCells;
+        directions = newDirections;
+        energies = newEnergies;
+        genes = newGenes;
+    }
+
+    private int[] getGenome(ByteBuffer frame) {
+        int tag = getVarInt(frame);
+        int id = (tag >>> 1) - 1;
+        if ((tag & 1) == 0) {
+            return genomes.get(id);
+        }
+        int[] read = getGenes(frame);
+        if (id >= 0) {
+            genomes.put(id, read);
+        }
+        return read;
+    }
+
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return epoch of the current frame, 0 for the starting state, -1 before the first {@link #next()}.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public Vector2d positionOf(int cell) {
+        return new Vector2d(cell % columns, cell / columns);
+    }
+
+    /**
+     * @return copy of the grass cells, {@code y * columns + x}.
+     */
+    public BitSet getGrassCells() {
+        return (BitSet) grass.clone();
+    }
+
+    public BitSet getFireCells() {
+        return (BitSet) fires.clone();
+    }
+
+    /**
+     * @return number of living animals, they are indexed 0..count-1 in id order.
+     */
+    public int getAnimalCount() {
+        return count;
+    }
+
+    public int getAnimalId(int index) {
+        return ids[index];
+    }
+
+    public Vector2d getAnimalPosition(int index) {
+        return positionOf(cells[index]);
+    }
+
+    public MapDirection getAnimalDirection(int index) {
+        return MapDirection.fromOrdinal(directions[index]);
+    }
+
+    public int getAnimalEnergy(int index) {
+        return energies[index];
+    }
+
+    public int[] getAnimalGenes(int index) {
+        return Arrays.copyOf(genes[index], genes[index].length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
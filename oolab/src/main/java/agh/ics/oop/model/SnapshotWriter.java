@@ -0,0 +1,266 @@
+package agh.ics.oop.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Map;
+
+import static agh.ics.oop.model.SnapshotFormat.*;
+
+/**
+ * Writes the history of a map as a compact binary file, one frame per epoch holding only what changed
+ * since the previous one, see {@link SnapshotFormat}. Frames are built in one reused buffer and written
+ * to a {@link FileChannel}. Like the {@link DeadAnimalArchive} log, the file is opened with the first frame
+ * and write errors are reported without stopping the simulation.
+ */
+public class SnapshotWriter implements AutoCloseable {
+    private final Path file;
+    private final WorldConfig config;
+    private FileChannel channel;
+    private boolean failed = false;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    // state of the previous frame
+    private BitSet grass = new BitSet();
+    private BitSet fires = new BitSet();
+    private BitSet nextGrass = new BitSet();
+    private BitSet nextFires = new BitSet();
+    private final BitSet scratch = new BitSet();
+    // living animals sorted by id
+    private int[] ids = new int[0];
+    private int[] cells = new int[0];
+    private int[] energies = new int[0];
+    private int count = 0;
+    private int[] nextIds = new int[0];
+    private int[] nextCells = new int[0];
+    private int[] nextEnergies = new int[0];
+    private final ArrayList<Animal> animals = new ArrayList<>();
+    private final BitSet writtenGenomes = new BitSet();
+    private long bytesWritten = 0;
+
+    public SnapshotWriter(Path file, WorldConfig config) {
+        this.file = file;
+        this.config = config;
+    }
+
+    /**
+     * Appends the state of the map at the end of the epoch.
+     */
+    public void write(int epoch, AbstractWorldMap map) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                writeHeader();
+            }
+            writeFrame(epoch, map);
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Failed to write snapshot: " + e.getMessage());
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        int lengthAt = buffer.position();
+        buffer.putInt(0);
+        Map<String, String> values = config.toValues();
+        putVarInt(buffer, values.size());
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            putString(buffer, value.getKey());
+            putString(buffer, value.getValue());
+        }
+        buffer.putInt(lengthAt, buffer.position() - lengthAt - Integer.BYTES);
+        flushBuffer();
+    }
+
+    private void writeFrame(int epoch, AbstractWorldMap map) throws IOException {
+        nextGrass.clear();
+        for (Vector2d position : map.getGrassesMap().keySet()) {
+            nextGrass.set(map.cellOf(position));
+        }
+        nextFires.clear();
+        if (map instanceof FireWorldMap fireMap) {
+            fireMap.collectFireCells(nextFires);
+        }
+        animals.clear();
+        map.storage.collectAnimals(animals);
+        animals.sort(Comparator.comparingInt(Animal::getId));
+
+        ensureCapacity(64 + 5 * (nextGrass.cardinality() + grass.cardinality() + nextFires.cardinality()
+                + fires.cardinality()) + animals.size() * (32 + config.getGenomeLength()) + 5 * count);
+        buffer.clear();
+        buffer.put(EPOCH_FRAME);
+        int lengthAt = buffer.position();
+        buffer.putInt(0);
+        putVarInt(buffer, epoch);
+        putCellChanges(buffer, grass, nextGrass, scratch);
+        putCellChanges(buffer, fires, nextFires, scratch);
+        writeAnimals(map);
+        buffer.putInt(lengthAt, buffer.position() - FRAME_HEADER);
+        flushBuffer();
+
+        BitSet swap = grass;
+        grass = nextGrass;
+        nextGrass = swap;
+        swap = fires;
+        fires = nextFires;
+        nextFires = swap;
+    }
+
+    private void writeAnimals(AbstractWorldMap map) {
+        int size = animals.size();
+        if (nextIds.length < size) {
+            int capacity = Math.max(size, nextIds.length * 2);
+            nextIds = new int[capacity];
+            nextCells = new int[capacity];
+            nextEnergies = new int[capacity];
+        }
+        for (int i = 0; i < size; i++) {
+            Animal animal = animals.get(i);
+            nextIds[i] = animal.getId();
+            nextCells[i] = map.cellOf(animal.getPosition());
+            nextEnergies[i] = animal.getEnergy();
+        }
+
+        // died: in the previous frame only
+        int died = 0;
+        for (int before = 0, now = 0; before < count; before++) {
+            while (now < size && nextIds[now] < ids[before]) {
+                now++;
+            }
+            if (now == size || nextIds[now] != ids[before]) {
+                died++;
+            }
+        }
+        putVarInt(buffer, died);
+        int previousId = 0;
+        for (int before = 0, now = 0; before < count; before++) {
+            while (now < size && nextIds[now] < ids[before]) {
+                now++;
+            }
+            if (now == size || nextIds[now] != ids[before]) {
+                putVarInt(buffer, ids[before] - previousId);
+                previousId = ids[before];
+            }
+        }
+
+        // born: in this frame only
+        int born = 0;
+        for (int now = 0, before = 0; now < size; now++) {
+            while (before < count && ids[before] < nextIds[now]) {
+                before++;
+            }
+            if (before == count || ids[before] != nextIds[now]) {
+                born++;
+            }
+        }
+        putVarInt(buffer, born);
+        previousId = 0;
+        for (int now = 0, before = 0; now < size; now++) {
+            while (before < count && ids[before] < nextIds[now]) {
+                before++;
+            }
+            if (before == count || ids[before] != nextIds[now]) {
+                Animal animal = animals.get(now);
+                putVarInt(buffer, nextIds[now] - previousId);
+                previousId = nextIds[now];
+                putVarInt(buffer, nextCells[now]);
+                buffer.put((byte) animal.getDirection().ordinal());
+                putVarInt(buffer, zigZag(nextEnergies[now]));
+                putGenome(animal.getGenome());
+            }
+        }
+
+        // survivors in id order
+        for (int now = 0, before = 0; now < size; now++) {
+            while (before < count && ids[before] < nextIds[now]) {
+                before++;
+            }
+            if (before < count && ids[before] == nextIds[now]) {
+                putVarInt(buffer, zigZag(nextCells[now] - cells[before]));
+                buffer.put((byte) animals.get(now).getDirection().ordinal());
+                putVarInt(buffer, zigZag(nextEnergies[now] - energies[before]));
+            }
+        }
+
+        int[] swap = ids;
+        ids = nextIds;
+        nextIds = swap;
+        swap = cells;
+        cells = nextCells;
+        nextCells = swap;
+        swap = energies;
+        energies = nextEnergies;
+        nextEnergies = swap;
+        count = size;
+    }
+
+    /**
+     * Called when the {@link GenomePool} gave the genomes new ids, the genes are written again with the next animals.
+     */
+    void genomesRenumbered() {
+        writtenGenomes.clear();
+    }
+
+    // tag is (pool id + 1) << 1, with the low bit set when the genes follow
+    private void putGenome(Genome genome) {
+        int id = genome.getId();
+        boolean written = id >= 0 && writtenGenomes.get(id);
+        putVarInt(buffer, (id + 1) << 1 | (written ? 0 : 1));
+        if (!written) {
+            putGenes(buffer, genome.getGenome());
+            if (id >= 0) {
+                writtenGenomes.set(id);
+            }
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(Math.max(bytes, buffer.capacity() * 2));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+
+    /**
+     * @return size of the file written so far.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close snapshot: " + e.getMessage());
+        }
+        channel = null;
+        failed = true;
+    }
+}
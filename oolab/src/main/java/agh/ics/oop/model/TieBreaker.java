@@ -1,36 +1,99 @@
 package agh.ics.oop.model;
 
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.random.RandomGenerator;
 
+/**
+ * Picks the two strongest animals on a field in a single pass, without sorting or allocating.
+ * Animals are ordered by energy, then number of children, then age, all descending,
+ * the remaining ties are broken randomly. A random value is drawn only when two animals
+ * actually tie, which gives the same odds as giving every animal a random value up front.
+ * One instance is reused for every field, so it must not be shared between threads.
+ */
 public class TieBreaker {
 
-    private final List<Animal> animals;
+    private final RandomGenerator random;
+    private Animal first;
+    private Animal second;
+    // random values of the selected animals, NaN until a tie needs them
+    private double firstKey;
+    private double secondKey;
 
-    public TieBreaker(List<Animal> animals) {
-        this.animals = animals;
+    public TieBreaker(RandomGenerator random) {
+        this.random = random;
     }
 
-    public List<Animal> breakTheTie() {
-        // Precompute a random value for each animal
-        HashMap<Animal, Double> randomValues = new HashMap<>();
-        Random random = new Random(); // Use a single Random instance for consistency
+    /**
+     * Selects the strongest animals of the list, read them with {@link #getFirst()} and {@link #getSecond()}.
+     */
+    public void selectTopTwo(List<Animal> animals) {
+        first = null;
+        second = null;
+        firstKey = Double.NaN;
+        secondKey = Double.NaN;
 
-        for (Animal animal : animals) {
-            randomValues.put(animal, random.nextDouble());
+        // indexed loop, the cell lists are ArrayLists and an iterator would be allocated per field
+        for (int i = 0, size = animals.size(); i < size; i++) {
+            Animal animal = animals.get(i);
+            double key = Double.NaN;
+
+            int comparison = first == null ? 1 : compareStrength(animal, first);
+            if (comparison == 0) {
+                if (Double.isNaN(firstKey)) {
+                    firstKey = random.nextDouble();
+                }
+                key = random.nextDouble();
+                comparison = Double.compare(firstKey, key);
+            }
+            if (comparison > 0) {
+                second = first;
+                secondKey = firstKey;
+                first = animal;
+                firstKey = key;
+                continue;
+            }
+
+            comparison = second == null ? 1 : compareStrength(animal, second);
+            if (comparison == 0) {
+                if (Double.isNaN(secondKey)) {
+                    secondKey = random.nextDouble();
+                }
+                if (Double.isNaN(key)) {
+                    key = random.nextDouble();
+                }
+                comparison = Double.compare(secondKey, key);
+            }
+            if (comparison > 0) {
+                second = animal;
+                secondKey = key;
+            }
+        }
+    }
+
+    // positive when a is stronger than b
+    private static int compareStrength(Animal a, Animal b) {
+        int comparison = Integer.compare(a.getEnergy(), b.getEnergy());
+        if (comparison != 0) {
+            return comparison;
         }
+        comparison = Integer.compare(a.getChildren(), b.getChildren());
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Integer.compare(a.getDaysLived(), b.getDaysLived());
+    }
+
+    /**
+     * @return strongest animal of the last selection, null for an empty field.
+     */
+    public Animal getFirst() {
+        return first;
+    }
 
-        return animals.stream()
-                .sorted(Comparator
-                        .comparingInt(Animal::getEnergy).reversed() // 1. Sort by energy (descending)
-                        .thenComparingInt(Animal::getChildren).reversed() // 2. Sort by number of children (descending)
-                        .thenComparingInt(Animal::getDaysLived).reversed() // 3. Sort by age (descending)
-                        .thenComparingDouble(randomValues::get) // 4. Stable random tiebreaker
-                )
-                .limit(2)
-                .collect(Collectors.toList());
+    /**
+     * @return second strongest animal of the last selection, null when there was only one.
+     */
+    public Animal getSecond() {
+        return second;
     }
 }
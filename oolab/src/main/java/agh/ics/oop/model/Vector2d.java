@@ -1,7 +1,5 @@
 package agh.ics.oop.model;
 
-import java.util.Objects;
-
 public class Vector2d {
     private final int x;
     private final int y;
@@ -66,6 +64,7 @@ public class Vector2d {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        // same spread as Objects.hash(x, y) without boxing and the varargs array
+        return 31 * (31 + x) + y;
     }
 }
@@ -2,10 +2,15 @@ package agh.ics.oop.model;
 
 import agh.ics.oop.model.variants.EMutationVariant;
 import agh.ics.oop.model.variants.EMapVariant;
+import agh.ics.oop.model.variants.EStorageVariant;
+import agh.ics.oop.model.variants.ETickMode;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 public class WorldConfig {
 
@@ -25,12 +30,32 @@ public class WorldConfig {
     private final int genomeLength;
     private final int fireMaxAge;
     private final int fireFreq;
+    private final EStorageVariant storageVariant;
+    private final int epochThreads;
+    private final boolean metricsEnabled;
+    private final long seed;
+    private final boolean populationStore;
+    private final int deadAnimalsInMemory;
+    private final String deadAnimalLogDir;
+    private final boolean asyncNotifications;
+    private final long mapLogMaxBytes;
+    private final boolean mapLogGzip;
+    private final int mapLogSnapshotInterval;
+    private final String snapshotDir;
+    private final String checkpointDir;
+    private final int checkpointInterval;
+    private final ETickMode tickMode;
+    private final double tickRate;
 
     private WorldConfig(
         int mapWidth, int mapHeight, EMapVariant mapVariant, int initialPlantCount, int plantEnergy,
         int dailyGrassGrowth, int initialAnimalCount, int initialAnimalEnergy, int energyToReproduce,
         int parentEnergyCost, int minMutations, int maxMutations, EMutationVariant mutationVariant,
-        int genomeLength, int fireMaxAge, int fireFreq
+        int genomeLength, int fireMaxAge, int fireFreq, EStorageVariant storageVariant, int epochThreads,
+        boolean metricsEnabled, long seed, boolean populationStore, int deadAnimalsInMemory,
+        String deadAnimalLogDir, boolean asyncNotifications, long mapLogMaxBytes, boolean mapLogGzip,
+        int mapLogSnapshotInterval, String snapshotDir, String checkpointDir, int checkpointInterval,
+        ETickMode tickMode, double tickRate
     ) {
         this.mapWidth = mapWidth;
         this.mapHeight = mapHeight;
@@ -48,6 +73,22 @@ public class WorldConfig {
         this.genomeLength = genomeLength;
         this.fireMaxAge = fireMaxAge;
         this.fireFreq = fireFreq;
+        this.storageVariant = storageVariant;
+        this.epochThreads = epochThreads;
+        this.metricsEnabled = metricsEnabled;
+        this.seed = seed;
+        this.populationStore = populationStore;
+        this.deadAnimalsInMemory = deadAnimalsInMemory;
+        this.deadAnimalLogDir = deadAnimalLogDir;
+        this.asyncNotifications = asyncNotifications;
+        this.mapLogMaxBytes = mapLogMaxBytes;
+        this.mapLogGzip = mapLogGzip;
+        this.mapLogSnapshotInterval = mapLogSnapshotInterval;
+        this.snapshotDir = snapshotDir;
+        this.checkpointDir = checkpointDir;
+        this.checkpointInterval = checkpointInterval;
+        this.tickMode = tickMode;
+        this.tickRate = tickRate;
     }
 
     public static WorldConfig loadFromFile(String filePath) throws IOException {
@@ -62,64 +103,159 @@ public class WorldConfig {
                 String key = parts[0].trim();
                 String value = parts[1].trim();
 
-                switch (key) {
-                    case "mapWidth":
-                        builder.mapWidth(Integer.parseInt(value));
-                        break;
-                    case "mapHeight":
-                        builder.mapHeight(Integer.parseInt(value));
-                        break;
-                    case "mapVariant":
-                        builder.mapVariant(EMapVariant.valueOf(value));
-                        break;
-                    case "initialPlantCount":
-                        builder.initialPlantCount(Integer.parseInt(value));
-                        break;
-                    case "plantEnergy":
-                        builder.plantEnergy(Integer.parseInt(value));
-                        break;
-                    case "dailyGrassGrowth":
-                        builder.dailyGrassGrowth(Integer.parseInt(value));
-                        break;
-                    case "initialAnimalCount":
-                        builder.initialAnimalCount(Integer.parseInt(value));
-                        break;
-                    case "initialAnimalEnergy":
-                        builder.initialAnimalEnergy(Integer.parseInt(value));
-                        break;
-                    case "energyToReproduce":
-                        builder.energyToReproduce(Integer.parseInt(value));
-                        break;
-                    case "parentEnergyCost":
-                        builder.parentEnergyCost(Integer.parseInt(value));
-                        break;
-                    case "minMutations":
-                        builder.minMutations(Integer.parseInt(value));
-                        break;
-                    case "maxMutations":
-                        builder.maxMutations(Integer.parseInt(value));
-                        break;
-                    case "mutationVariant":
-                        builder.mutationVariant(EMutationVariant.valueOf(value));
-                        break;
-                    case "genomeLength":
-                        builder.genomeLength(Integer.parseInt(value));
-                        break;
-                    case "fireMaxAge":
-                        builder.fireMaxAge(Integer.parseInt(value));
-                        break;
-                    case "fireFreq":
-                        builder.fireFreq(Integer.parseInt(value));
-                        break;
-                    default:
-                        System.err.println("Unknown configuration key: " + key);
-                }
+                set(builder, key, value);
             }
         }
 
         return builder.build();
     }
 
+    /**
+     * Sets one option given as in a config file, unknown keys are reported and skipped.
+     */
+    static void set(Builder builder, String key, String value) {
+        switch (key) {
+            case "mapWidth":
+                builder.mapWidth(Integer.parseInt(value));
+                break;
+            case "mapHeight":
+                builder.mapHeight(Integer.parseInt(value));
+                break;
+            case "mapVariant":
+                builder.mapVariant(EMapVariant.valueOf(value));
+                break;
+            case "initialPlantCount":
+                builder.initialPlantCount(Integer.parseInt(value));
+                break;
+            case "plantEnergy":
+                builder.plantEnergy(Integer.parseInt(value));
+                break;
+            case "dailyGrassGrowth":
+                builder.dailyGrassGrowth(Integer.parseInt(value));
+                break;
+            case "initialAnimalCount":
+                builder.initialAnimalCount(Integer.parseInt(value));
+                break;
+            case "initialAnimalEnergy":
+                builder.initialAnimalEnergy(Integer.parseInt(value));
+                break;
+            case "energyToReproduce":
+                builder.energyToReproduce(Integer.parseInt(value));
+                break;
+            case "parentEnergyCost":
+                builder.parentEnergyCost(Integer.parseInt(value));
+                break;
+            case "minMutations":
+                builder.minMutations(Integer.parseInt(value));
+                break;
+            case "maxMutations":
+                builder.maxMutations(Integer.parseInt(value));
+                break;
+            case "mutationVariant":
+                builder.mutationVariant(EMutationVariant.valueOf(value));
+                break;
+            case "genomeLength":
+                builder.genomeLength(Integer.parseInt(value));
+                break;
+            case "fireMaxAge":
+                builder.fireMaxAge(Integer.parseInt(value));
+                break;
+            case "fireFreq":
+                builder.fireFreq(Integer.parseInt(value));
+                break;
+            case "storageVariant":
+                builder.storageVariant(EStorageVariant.valueOf(value));
+                break;
+            case "epochThreads":
+                builder.epochThreads(Integer.parseInt(value));
+                break;
+            case "metricsEnabled":
+                builder.metricsEnabled(Boolean.parseBoolean(value));
+                break;
+            case "seed":
+                builder.seed(Long.parseLong(value));
+                break;
+            case "populationStore":
+                builder.populationStore(Boolean.parseBoolean(value));
+                break;
+            case "deadAnimalsInMemory":
+                builder.deadAnimalsInMemory(Integer.parseInt(value));
+                break;
+            case "deadAnimalLogDir":
+                builder.deadAnimalLogDir(value);
+                break;
+            case "asyncNotifications":
+                builder.asyncNotifications(Boolean.parseBoolean(value));
+                break;
+            case "mapLogMaxBytes":
+                builder.mapLogMaxBytes(Long.parseLong(value));
+                break;
+            case "mapLogGzip":
+                builder.mapLogGzip(Boolean.parseBoolean(value));
+                break;
+            case "mapLogSnapshotInterval":
+                builder.mapLogSnapshotInterval(Integer.parseInt(value));
+                break;
+            case "snapshotDir":
+                builder.snapshotDir(value);
+                break;
+            case "checkpointDir":
+                builder.checkpointDir(value);
+                break;
+            case "checkpointInterval":
+                builder.checkpointInterval(Integer.parseInt(value));
+                break;
+            case "tickMode":
+                builder.tickMode(ETickMode.valueOf(value));
+                break;
+            case "tickRate":
+                builder.tickRate(Double.parseDouble(value));
+                break;
+            default:
+                System.err.println("Unknown configuration key: " + key);
+        }
+    }
+
+    /**
+     * @return every option as it is written in a config file, {@link #set} reads them back.
+     */
+    public Map<String, String> toValues() {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("mapWidth", String.valueOf(mapWidth));
+        values.put("mapHeight", String.valueOf(mapHeight));
+        values.put("mapVariant", mapVariant.name());
+        values.put("initialPlantCount", String.valueOf(initialPlantCount));
+        values.put("plantEnergy", String.valueOf(plantEnergy));
+        values.put("dailyGrassGrowth", String.valueOf(dailyGrassGrowth));
+        values.put("initialAnimalCount", String.valueOf(initialAnimalCount));
+        values.put("initialAnimalEnergy", String.valueOf(initialAnimalEnergy));
+        values.put("energyToReproduce", String.valueOf(energyToReproduce));
+        values.put("parentEnergyCost", String.valueOf(parentEnergyCost));
+        values.put("minMutations", String.valueOf(minMutations));
+        values.put("maxMutations", String.valueOf(maxMutations));
+        values.put("mutationVariant", mutationVariant.name());
+        values.put("genomeLength", String.valueOf(genomeLength));
+        values.put("fireMaxAge", String.valueOf(fireMaxAge));
+        values.put("fireFreq", String.valueOf(fireFreq));
+        values.put("storageVariant", storageVariant.name());
+        values.put("epochThreads", String.valueOf(epochThreads));
+        values.put("metricsEnabled", String.valueOf(metricsEnabled));
+        values.put("seed", String.valueOf(seed));
+        values.put("populationStore", String.valueOf(populationStore));
+        values.put("deadAnimalsInMemory", String.valueOf(deadAnimalsInMemory));
+        values.put("deadAnimalLogDir", deadAnimalLogDir);
+        values.put("asyncNotifications", String.valueOf(asyncNotifications));
+        values.put("mapLogMaxBytes", String.valueOf(mapLogMaxBytes));
+        values.put("mapLogGzip", String.valueOf(mapLogGzip));
+        values.put("mapLogSnapshotInterval", String.valueOf(mapLogSnapshotInterval));
+        values.put("snapshotDir", snapshotDir);
+        values.put("checkpointDir", checkpointDir);
+        values.put("checkpointInterval", String.valueOf(checkpointInterval));
+        values.put("tickMode", tickMode.name());
+        values.put("tickRate", String.valueOf(tickRate));
+        return values;
+    }
+
     public int getMapWidth() {
         return mapWidth;
     }
@@ -184,23 +320,153 @@ public class WorldConfig {
         return fireFreq;
     }
 
+    public EStorageVariant getStorageVariant() {
+        return storageVariant;
+    }
+
+    /**
+     * @return number of threads used by a single simulation, 1 runs the epoch sequentially.
+     */
+    public int getEpochThreads() {
+        return epochThreads;
+    }
+
+    /**
+     * @return whether the simulation records per phase timings and counters, see {@link EpochMetrics}.
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * @return seed of the simulation's random source, 0 means a different run every time.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return new random source seeded with {@link #getSeed()}, or randomly seeded when the seed is 0.
+     */
+    public SplittableRandom createRandom() {
+        return seed != 0 ? new SplittableRandom(seed) : new SplittableRandom();
+    }
+
+    /**
+     * @return whether living animals keep their state in a {@link PopulationStore} instead of their own fields.
+     */
+    public boolean isPopulationStoreEnabled() {
+        return populationStore;
+    }
+
+    /**
+     * @return number of the most recent dead animals kept in memory, older ones only count in the statistics.
+     */
+    public int getDeadAnimalsInMemory() {
+        return deadAnimalsInMemory;
+    }
+
+    /**
+     * @return directory every dead animal is logged to, empty when they are not logged.
+     */
+    public String getDeadAnimalLogDir() {
+        return deadAnimalLogDir;
+    }
+
+    /**
+     * @return whether map changes are batched per epoch and delivered on a {@link MapEventBus} thread.
+     */
+    public boolean isAsyncNotificationsEnabled() {
+        return asyncNotifications;
+    }
+
+    /**
+     * @return size the map log grows to before it is rotated, 0 when it is never rotated.
+     */
+    public long getMapLogMaxBytes() {
+        return mapLogMaxBytes;
+    }
+
+    public boolean isMapLogGzip() {
+        return mapLogGzip;
+    }
+
+    /**
+     * @return every how many updates the map log gets the whole map drawn, see {@link FileMapDisplay}.
+     */
+    public int getMapLogSnapshotInterval() {
+        return mapLogSnapshotInterval;
+    }
+
+    /**
+     * @return directory the history of every epoch is written to, see {@link SnapshotWriter}, empty when it is not.
+     */
+    public String getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    /**
+     * @return directory the checkpoint of a running simulation is written to, see {@link CheckpointWriter},
+     * empty when it is not.
+     */
+    public String getCheckpointDir() {
+        return checkpointDir;
+    }
+
+    /**
+     * @return every how many epochs the checkpoint is written.
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @return how the {@link agh.ics.oop.SimulationEngine} paces the epochs, see {@link agh.ics.oop.TickScheduler}.
+     */
+    public ETickMode getTickMode() {
+        return tickMode;
+    }
+
+    /**
+     * @return epochs per second in the FIXED_RATE tick mode.
+     */
+    public double getTickRate() {
+        return tickRate;
+    }
+
     public static class Builder {
-        private static int mapWidth = 10;
-        private static int mapHeight = 10;
-        private static EMapVariant mapVariant = EMapVariant.STANDARD;
-        private static int initialPlantCount = 10;
-        private static int plantEnergy = 10;
-        private static int dailyGrassGrowth = 5;
-        private static int initialAnimalCount = 6;
-        private static int initialAnimalEnergy = 50;
-        private static int energyToReproduce = 40;
-        private static int parentEnergyCost = 10;
-        private static int minMutations = 0;
-        private static int maxMutations = 2;
-        private static EMutationVariant mutationVariant = EMutationVariant.STANDARD;
-        private static int genomeLength = 5;
-        private static int fireMaxAge = 1;
-        private static int fireFreq = 1;
+        private int mapWidth = 10;
+        private int mapHeight = 10;
+        private EMapVariant mapVariant = EMapVariant.STANDARD;
+        private int initialPlantCount = 10;
+        private int plantEnergy = 10;
+        private int dailyGrassGrowth = 5;
+        private int initialAnimalCount = 6;
+        private int initialAnimalEnergy = 50;
+        private int energyToReproduce = 40;
+        private int parentEnergyCost = 10;
+        private int minMutations = 0;
+        private int maxMutations = 2;
+        private EMutationVariant mutationVariant = EMutationVariant.STANDARD;
+        private int genomeLength = 5;
+        private int fireMaxAge = 1;
+        private int fireFreq = 1;
+        private EStorageVariant storageVariant = EStorageVariant.HASH;
+        private int epochThreads = 1;
+        private boolean metricsEnabled = false;
+        private long seed = 0;
+        private boolean populationStore = false;
+        private int deadAnimalsInMemory = DeadAnimalArchive.DEFAULT_CAPACITY;
+        private String deadAnimalLogDir = "";
+        private boolean asyncNotifications = false;
+        private long mapLogMaxBytes = 0;
+        private boolean mapLogGzip = false;
+        private int mapLogSnapshotInterval = 1;
+        private String snapshotDir = "";
+        private String checkpointDir = "";
+        private int checkpointInterval = 1000;
+        private ETickMode tickMode = ETickMode.FIXED_RATE;
+        private double tickRate = 1;
 
         public Builder mapWidth(int mapWidth) {
             validatePositive(mapWidth, "Map Width");
@@ -310,12 +576,109 @@ public class WorldConfig {
             return this;
         }
 
+        public Builder storageVariant(EStorageVariant storageVariant) {
+            validateEnumValue(storageVariant, "Storage Variant");
+            this.storageVariant = storageVariant;
+            return this;
+        }
+
+        public Builder epochThreads(int epochThreads) {
+            validatePositive(epochThreads, "Epoch Threads");
+            this.epochThreads = epochThreads;
+            return this;
+        }
+
+        public Builder metricsEnabled(boolean metricsEnabled) {
+            this.metricsEnabled = metricsEnabled;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder populationStore(boolean populationStore) {
+            this.populationStore = populationStore;
+            return this;
+        }
+
+        public Builder deadAnimalsInMemory(int deadAnimalsInMemory) {
+            if (deadAnimalsInMemory < 0) {
+                throw new IllegalArgumentException("Dead Animals In Memory must not be negative.");
+            }
+            this.deadAnimalsInMemory = deadAnimalsInMemory;
+            return this;
+        }
+
+        public Builder deadAnimalLogDir(String deadAnimalLogDir) {
+            this.deadAnimalLogDir = deadAnimalLogDir;
+            return this;
+        }
+
+        public Builder asyncNotifications(boolean asyncNotifications) {
+            this.asyncNotifications = asyncNotifications;
+            return this;
+        }
+
+        public Builder mapLogMaxBytes(long mapLogMaxBytes) {
+            if (mapLogMaxBytes < 0) {
+                throw new IllegalArgumentException("Map Log Max Bytes must not be negative.");
+            }
+            this.mapLogMaxBytes = mapLogMaxBytes;
+            return this;
+        }
+
+        public Builder mapLogGzip(boolean mapLogGzip) {
+            this.mapLogGzip = mapLogGzip;
+            return this;
+        }
+
+        public Builder mapLogSnapshotInterval(int mapLogSnapshotInterval) {
+            validatePositive(mapLogSnapshotInterval, "Map Log Snapshot Interval");
+            this.mapLogSnapshotInterval = mapLogSnapshotInterval;
+            return this;
+        }
+
+        public Builder snapshotDir(String snapshotDir) {
+            this.snapshotDir = snapshotDir;
+            return this;
+        }
+
+        public Builder checkpointDir(String checkpointDir) {
+            this.checkpointDir = checkpointDir;
+            return this;
+        }
+
+        public Builder checkpointInterval(int checkpointInterval) {
+            validatePositive(checkpointInterval, "Checkpoint Interval");
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        public Builder tickMode(ETickMode tickMode) {
+            validateEnumValue(tickMode, "Tick Mode");
+            this.tickMode = tickMode;
+            return this;
+        }
+
+        public Builder tickRate(double tickRate) {
+            if (!(tickRate > 0)) {
+                throw new IllegalArgumentException("Tick Rate must be positive.");
+            }
+            this.tickRate = tickRate;
+            return this;
+        }
+
         public WorldConfig build() {
             return new WorldConfig(
                 mapWidth, mapHeight, mapVariant, initialPlantCount, plantEnergy, dailyGrassGrowth,
                 initialAnimalCount, initialAnimalEnergy, energyToReproduce, parentEnergyCost,
                 minMutations, maxMutations, mutationVariant, genomeLength,
-                fireMaxAge, fireFreq
+                fireMaxAge, fireFreq, storageVariant, epochThreads, metricsEnabled, seed,
+                populationStore, deadAnimalsInMemory, deadAnimalLogDir, asyncNotifications,
+                mapLogMaxBytes, mapLogGzip, mapLogSnapshotInterval, snapshotDir, checkpointDir, checkpointInterval,
+                tickMode, tickRate
             );
         }
 
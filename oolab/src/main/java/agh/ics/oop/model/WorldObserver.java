@@ -1,17 +1,57 @@
 package agh.ics.oop.model;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Keeps running totals of the population, updated by births, deaths and energy changes,
+ * so collecting the statistics does not depend on how many animals have lived so far.
+ */
 public class WorldObserver {
     private final AbstractWorldMap map;
     private int epoch;
     private final Map<String, Object> stats;
 
+    private int liveAnimals = 0;
+    // energy changes while animals move in parallel
+    private final LongAdder energySum = new LongAdder();
+    // replaced by rebuildGenomePool
+    private GenomePool genomePool = new GenomePool();
+
     public WorldObserver(AbstractWorldMap map) {
         this.map = map;
         this.epoch = 0;
         this.stats = new HashMap<>();
+        for (Animal animal : map.getAllAnimals()) {
+            animalAdded(animal);
+        }
+    }
+
+    void animalAdded(Animal animal) {
+        animal.setObserver(this);
+        liveAnimals++;
+        energySum.add(animal.getEnergy());
+        genomePool.acquire(animal.getGenome());
+    }
+
+    void animalDied(Animal animal) {
+        if (animal.getObserver() == this) {
+            animal.setObserver(null);
+            liveAnimals--;
+            energySum.add(-animal.getEnergy());
+            genomePool.release(animal.getGenome());
+        }
+    }
+
+    void energyChanged(int delta) {
+        energySum.add(delta);
+    }
+
+    void genomeChanged(Genome oldGenome, Genome newGenome) {
+        genomePool.release(oldGenome);
+        genomePool.acquire(newGenome);
     }
 
     public void update() {
@@ -19,6 +59,25 @@ public class WorldObserver {
         collectStats();
     }
 
+    /**
+     * Gives the genomes new ids in the order of the animals on the map, so the ids and the ties between
+     * dominant genomes no longer depend on the genomes of the animals that died.
+     */
+    void rebuildGenomePool() {
+        genomePool = new GenomePool();
+        for (Animal animal : map.getAllAnimals()) {
+            genomePool.acquire(animal.getGenome());
+        }
+    }
+
+    /**
+     * Continues counting epochs from a checkpoint taken at the end of the epoch.
+     */
+    void restoreEpoch(int epoch) {
+        this.epoch = epoch;
+        collectStats();
+    }
+
     private double round2(double value) {
         return (double) Math.round(value * 100) / 100;
     }
@@ -35,7 +94,7 @@ public class WorldObserver {
     }
 
     private int countAnimals() {
-        return map.getAllAnimals().size();
+        return liveAnimals;
     }
 
     private int calculateEmptySquares() {
@@ -43,40 +102,33 @@ public class WorldObserver {
     }
 
     private int countGrass() {
-        return map.getGrass().size();
+        return map.getGrassCount();
     }
 
     private double calculateAverageEnergy() {
-        return round2(map.getAllAnimals().stream()
-                .mapToInt(Animal::getEnergy)
-                .average()
-                .orElse(0));
+        return liveAnimals == 0 ? 0 : round2((double) energySum.sum() / liveAnimals);
     }
 
     private double calculateAverageLifespan() {
-        return round2(map.getDeadAnimals().stream()
-                .mapToInt(Animal::getLifespan)
-                .average()
-                .orElse(0));
+        DeadAnimalArchive dead = map.getDeadAnimalArchive();
+        return dead.getCount() == 0 ? 0 : round2((double) dead.getLifespanSum() / dead.getCount());
     }
 
     private double calculateAverageChildren() {
-        return round2(map.getDeadAnimals().stream()
-                .mapToInt(Animal::getChildren)
-                .average()
-                .orElse(0));
+        DeadAnimalArchive dead = map.getDeadAnimalArchive();
+        return dead.getCount() == 0 ? 0 : round2((double) dead.getChildrenSum() / dead.getCount());
     }
 
     public Genome findDominantGenome() {
-        Map<Genome, Integer> genomeCounts = new HashMap<>();
-        map.getAllAnimals().stream()
-                .map(Animal::getGenome)
-                .forEach(genome -> genomeCounts.put(genome, genomeCounts.getOrDefault(genome, 0) + 1));
-
-        return genomeCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
+        return genomePool.dominantGenome();
+    }
+
+    public List<Genome> findDominantGenomes(int k) {
+        return genomePool.dominantGenomes(k);
+    }
+
+    public GenomePool getGenomePool() {
+        return genomePool;
     }
 
     public Map<String, Object> getStats() {
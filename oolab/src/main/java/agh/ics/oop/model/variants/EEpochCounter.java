@@ -0,0 +1,9 @@
+package agh.ics.oop.model.variants;
+
+public enum EEpochCounter {
+    ANIMALS_MOVED,
+    BIRTHS,
+    DEATHS,
+    PLANTS_EATEN,
+    CELLS_BURNED;
+}
@@ -0,0 +1,12 @@
+package agh.ics.oop.model.variants;
+
+public enum EEpochPhase {
+    REMOVE_DEAD,
+    FIRE,
+    MOVE,
+    EAT,
+    REPRODUCE,
+    SPAWN_GRASS,
+    CHECKPOINT,
+    STATS;
+}
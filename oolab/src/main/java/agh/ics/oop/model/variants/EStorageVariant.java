@@ -0,0 +1,6 @@
+package agh.ics.oop.model.variants;
+
+public enum EStorageVariant {
+    HASH,
+    GRID;
+}
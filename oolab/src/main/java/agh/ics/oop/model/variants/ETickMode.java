@@ -0,0 +1,7 @@
+package agh.ics.oop.model.variants;
+
+public enum ETickMode {
+    FIXED_RATE,
+    MAX_SPEED,
+    FRAME_LOCKED;
+}
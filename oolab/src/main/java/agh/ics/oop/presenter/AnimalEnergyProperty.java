@@ -0,0 +1,32 @@
+package agh.ics.oop.presenter;
+
+import agh.ics.oop.model.Animal;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+/**
+ * JavaFX property following the energy of one animal. The model keeps energy as a plain int,
+ * only the animal wrapped here reports its changes, which are passed to the JavaFX thread.
+ */
+class AnimalEnergyProperty {
+    private final Animal animal;
+    private final ReadOnlyIntegerWrapper energy;
+
+    AnimalEnergyProperty(Animal animal) {
+        this.animal = animal;
+        this.energy = new ReadOnlyIntegerWrapper(animal.getEnergy());
+        animal.setEnergyListener(value -> Platform.runLater(() -> energy.set(value)));
+    }
+
+    ReadOnlyIntegerProperty property() {
+        return energy.getReadOnlyProperty();
+    }
+
+    /**
+     * Stops following the animal.
+     */
+    void dispose() {
+        animal.setEnergyListener(null);
+    }
+}
@@ -6,6 +6,8 @@ import agh.ics.oop.SimulationConfiguration;
 import agh.ics.oop.SimulationEngine;
 import agh.ics.oop.model.*;
 import agh.ics.oop.model.variants.EMapVariant;
+import agh.ics.oop.model.variants.ETickMode;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.geometry.HPos;
@@ -34,7 +36,10 @@ public class SimulationPresenter implements MapChangeListener {
     private AbstractWorldMap map;
     private Simulation simulation;
     private SimulationEngine engine;
+    private WorldConfig config = new WorldConfig.Builder().build();
     private boolean isPaused = false;
+    // drives the engine when its scheduler is in FRAME_LOCKED mode
+    private AnimationTimer frameTimer;
 
     @FXML
     private GridPane mapGrid;
@@ -104,6 +109,8 @@ public class SimulationPresenter implements MapChangeListener {
     private static final int MAX_DATA_POINTS = 100;
 
     private Animal trackedAnimal = null;
+    // the only animal reporting its energy changes, null when nothing is tracked
+    private AnimalEnergyProperty trackedAnimalEnergy = null;
 
     @FXML
     private ScrollPane mapScrollPane;
@@ -125,6 +132,7 @@ public class SimulationPresenter implements MapChangeListener {
     }
 
     private void clearTrackedAnimalUI() {
+        trackedAnimalEnergyLabel.textProperty().unbind();
         trackedAnimalIdLabel.setText("ID: ");
         trackedAnimalEnergyLabel.setText("Energy: ");
         trackedAnimalGenomeLabel.setText("Genome: ");
@@ -177,7 +185,11 @@ public class SimulationPresenter implements MapChangeListener {
     }
 
     private void highlightDominantGenomes() {
-        String dominantGenome = map.wObserver.findDominantGenome().toString();
+        Genome dominantGenome = map.wObserver.findDominantGenome();
+        if (dominantGenome == null) {
+            return;
+        }
+        int dominantGenomeId = dominantGenome.getId();
 
         Platform.runLater(() -> {
             for (Region cell : getMapGridCells()) {
@@ -186,8 +198,7 @@ public class SimulationPresenter implements MapChangeListener {
                     continue;
                 }
                 if (elementBox.getWorldElement() instanceof Animal animal) {
-                    String cellGenome = animal.getGenome().toString();
-                    if (dominantGenome.equals(cellGenome)) {
+                    if (animal.getGenome().getId() == dominantGenomeId) {
                         cell.getStyleClass().add("highlight-dominant-genome");
                     }
                 }
@@ -425,6 +436,25 @@ public class SimulationPresenter implements MapChangeListener {
         });
     }
 
+    /**
+     * Stops the running simulation, its engine thread closes it after the last step.
+     */
+    public void stop() {
+        if (frameTimer != null) {
+            frameTimer.stop();
+        }
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Sets the config of the simulations started from now on.
+     */
+    public void setConfig(WorldConfig config) {
+        this.config = config;
+    }
+
     @FXML
     private void startSimulation() {
 
@@ -437,13 +467,30 @@ public class SimulationPresenter implements MapChangeListener {
             e.printStackTrace();
         }
 
-        WorldConfig.Builder builder = new WorldConfig.Builder();
-        WorldConfig config = builder.build();
         Simulation sim = new Simulation(config);
         this.simulation = sim;
         sim.addObserver(this);
-        this.engine = new SimulationEngine(List.of(sim));
+        if (this.engine != null) {
+            this.engine.stop();
+        }
+        this.engine = new SimulationEngine(List.of(sim), config);
         new Thread(engine::run).start();
+
+        SimulationEngine currentEngine = this.engine;
+        if (frameTimer != null) {
+            frameTimer.stop();
+            frameTimer = null;
+        }
+        if (config.getTickMode() != ETickMode.FRAME_LOCKED) {
+            return;
+        }
+        frameTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                currentEngine.getScheduler().signalFrame();
+            }
+        };
+        frameTimer.start();
     }
 
     @FXML
@@ -457,11 +504,25 @@ public class SimulationPresenter implements MapChangeListener {
     }
 
     private void setTrackedAnimal(Animal animal) {
+        if (trackedAnimalEnergy != null) {
+            trackedAnimalEnergy.dispose();
+        }
         this.trackedAnimal = animal;
+        // from now on the descendants of the animal are counted on every birth instead of on every redraw
+        map.getLineage().track(animal.getId());
+        this.trackedAnimalEnergy = new AnimalEnergyProperty(animal);
+        trackedAnimalEnergyLabel.textProperty().bind(trackedAnimalEnergy.property().asString("Energy: %d"));
         updateTrackedAnimalUI(animal);
     }
 
     private void clearTrackedAnimal() {
+        if (trackedAnimalEnergy != null) {
+            trackedAnimalEnergy.dispose();
+            trackedAnimalEnergy = null;
+        }
+        if (map != null) {
+            map.getLineage().untrack();
+        }
         this.trackedAnimal = null;
         clearTrackedAnimalUI();
     }
@@ -470,7 +531,6 @@ public class SimulationPresenter implements MapChangeListener {
         trackedAnimalIdLabel.setText("ID: " + animal.getId());
         trackedAnimalGenomeLabel.setText("Genome: " + animal.getGenome().toString());
         trackedAnimalCurGenLabel.setText("Current Gen: " + animal.getCurrentGen());
-        trackedAnimalEnergyLabel.setText("Energy: " + animal.getEnergy());
         trackedAnimalPlantsEatenLabel.setText("Plants Eaten: " + animal.getPlantsEaten());
         trackedAnimalChildrenLabel.setText("Children: " + animal.getChildren());
         trackedAnimalDescendantsLabel.setText("Descendants: " + animal.getDescendants());
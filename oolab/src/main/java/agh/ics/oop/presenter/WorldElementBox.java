@@ -1,5 +1,8 @@
-package agh.ics.oop.model;
+package agh.ics.oop.presenter;
 
+import agh.ics.oop.model.Animal;
+import agh.ics.oop.model.Vector2d;
+import agh.ics.oop.model.WorldElement;
 import javafx.geometry.Pos;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.image.Image;
@@ -90,14 +93,9 @@ public class WorldElementBox {
         progressBar.setPrefHeight(10);
         progressBar.setProgress(calculateEnergyProgress(animal));
 
+        // the map is redrawn every epoch, so the bar shows the energy at drawing time
         setEnergyBarColor(progressBar, animal.getEnergy());
 
-        animal.energyProperty().addListener((observable, oldValue, newValue) -> {
-            double progress = calculateEnergyProgress(animal);
-            progressBar.setProgress(progress);
-            setEnergyBarColor(progressBar, newValue.intValue());
-        });
-
         return progressBar;
     }
 
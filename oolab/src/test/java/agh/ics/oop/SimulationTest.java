@@ -0,0 +1,101 @@
+package agh.ics.oop;
+
+import agh.ics.oop.model.Animal;
+import agh.ics.oop.model.WorldConfig;
+import agh.ics.oop.model.variants.EMapVariant;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTest {
+
+    private WorldConfig seededConfig(EMapVariant mapVariant, int threads, long seed) {
+        return new WorldConfig.Builder()
+                .mapVariant(mapVariant)
+                .fireMaxAge(2)
+                .fireFreq(3)
+                .epochThreads(threads)
+                .seed(seed)
+                .build();
+    }
+
+    private String describeAnimals(Simulation simulation) {
+        StringBuilder sb = new StringBuilder();
+        for (Animal animal : simulation.getAnimals()) {
+            sb.append(animal.getId()).append(animal.getPosition()).append(animal.getDirection()).append(animal.getEnergy())
+                    .append(animal.getGenome()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private void assertSameRuns(WorldConfig config) {
+        Simulation first = new Simulation(config, List.of());
+        Simulation second = new Simulation(config, List.of());
+        assertEquals(describeAnimals(first), describeAnimals(second), "Starting animals should be the same");
+
+        for (int epoch = 1; epoch <= 50 && !first.isExtinct(); epoch++) {
+            first.step();
+            second.step();
+            Map<String, Object> stats = first.getStats();
+            assertEquals(stats, second.getStats(), "Statistics should be the same in epoch " + epoch);
+            assertEquals(describeAnimals(first), describeAnimals(second), "Animals should be the same in epoch " + epoch);
+        }
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void testSameSeedGivesSameRun() {
+        assertSameRuns(seededConfig(EMapVariant.STANDARD, 1, 42));
+    }
+
+    @Test
+    void testSameSeedGivesSameRunOnFireMap() {
+        assertSameRuns(seededConfig(EMapVariant.FIRE, 1, 7));
+    }
+
+    @Test
+    void testSameSeedGivesSameParallelRun() {
+        assertSameRuns(seededConfig(EMapVariant.STANDARD, 4, 42));
+    }
+
+    @Test
+    void testConcurrentSimulationsGiveTheSameIds() throws InterruptedException {
+        WorldConfig config = seededConfig(EMapVariant.STANDARD, 1, 42);
+        Simulation first = new Simulation(config, List.of());
+        Simulation second = new Simulation(config, List.of());
+        Thread firstThread = new Thread(() -> runSteps(first, 50));
+        Thread secondThread = new Thread(() -> runSteps(second, 50));
+        firstThread.start();
+        secondThread.start();
+        firstThread.join();
+        secondThread.join();
+
+        assertEquals(describeAnimals(first), describeAnimals(second), "Simulations running at once should not share ids");
+        Set<Integer> ids = new HashSet<>();
+        for (Animal animal : first.getAnimals()) {
+            assertTrue(ids.add(animal.getId()), "Id " + animal.getId() + " should be unique");
+        }
+        for (Animal animal : first.getMap().getDeadAnimals()) {
+            assertTrue(ids.add(animal.getId()), "Id " + animal.getId() + " should be unique");
+        }
+    }
+
+    private void runSteps(Simulation simulation, int epochs) {
+        for (int epoch = 0; epoch < epochs && !simulation.isExtinct(); epoch++) {
+            simulation.step();
+        }
+    }
+
+    @Test
+    void testDifferentSeedsGiveDifferentRuns() {
+        Simulation first = new Simulation(seededConfig(EMapVariant.STANDARD, 1, 1), List.of());
+        Simulation second = new Simulation(seededConfig(EMapVariant.STANDARD, 1, 2), List.of());
+        assertNotEquals(describeAnimals(first), describeAnimals(second), "Different seeds should place animals differently");
+    }
+}
@@ -0,0 +1,87 @@
+package agh.ics.oop;
+
+import agh.ics.oop.model.WorldConfig;
+import agh.ics.oop.model.variants.ETickMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickSchedulerTest {
+
+    @Test
+    void testMaxSpeedNeverWaits() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(ETickMode.MAX_SPEED, 1);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(scheduler.awaitNextTick());
+            scheduler.tickCompleted();
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "1000 unthrottled ticks should not take a second");
+    }
+
+    @Test
+    void testFixedRateKeepsTimeline() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(ETickMode.FIXED_RATE, 100);
+        long start = System.nanoTime();
+        for (int i = 0; i < 21; i++) {
+            scheduler.awaitNextTick();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis >= 190, "20 periods of 10 ms should take about 200 ms, took " + elapsedMillis);
+    }
+
+    @Test
+    void testStopReleasesPausedLoop() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(ETickMode.MAX_SPEED, 1);
+        scheduler.pause();
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler.stop();
+        });
+        stopper.start();
+        assertFalse(scheduler.awaitNextTick(), "Stopped scheduler should end the loop");
+        stopper.join();
+    }
+
+    @Test
+    void testFrameLockedWaitsForFrame() throws InterruptedException {
+        TickScheduler scheduler = new TickScheduler(ETickMode.FRAME_LOCKED, 1);
+        scheduler.signalFrame();
+        assertTrue(scheduler.awaitNextTick());
+
+        Thread frame = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler.signalFrame();
+        });
+        long start = System.nanoTime();
+        frame.start();
+        assertTrue(scheduler.awaitNextTick());
+        assertTrue(System.nanoTime() - start >= 40_000_000L, "Second tick should wait for the next frame");
+        frame.join();
+    }
+
+    @Test
+    void testRejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TickScheduler(ETickMode.FIXED_RATE, 0));
+    }
+
+    @Test
+    void testEngineTicksAsConfigured() {
+        WorldConfig config = new WorldConfig.Builder().tickMode(ETickMode.FRAME_LOCKED).tickRate(30).build();
+        TickScheduler scheduler = new SimulationEngine(List.of(), config).getScheduler();
+
+        assertEquals(ETickMode.FRAME_LOCKED, scheduler.getMode());
+        assertEquals(30, scheduler.getTargetRate());
+        assertThrows(IllegalArgumentException.class, () -> new WorldConfig.Builder().tickRate(0));
+    }
+}
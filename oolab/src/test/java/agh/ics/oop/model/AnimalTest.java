@@ -3,6 +3,9 @@ package agh.ics.oop.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AnimalTest {
@@ -74,4 +77,22 @@ class AnimalTest {
         assertEquals(animal.getPosition(), child.getPosition(), "Child should inherit parent's position");
         assertNotNull(child.getGenome(), "Child should have a genome");
     }
+
+    @Test
+    void testEnergyListener() {
+        List<Integer> reported = new ArrayList<>();
+        animal.setEnergyListener(reported::add);
+        animal.move();
+        animal.eatGrass();
+        assertEquals(List.of(49, 49 + config.getPlantEnergy()), reported, "Listener should get every new energy");
+
+        PopulationStore store = new PopulationStore(map, 0);
+        animal.attach(store);
+        store.moveAll();
+        assertEquals(48 + config.getPlantEnergy(), (int) reported.get(reported.size() - 1), "Listener should hear about moves of the store");
+
+        animal.setEnergyListener(null);
+        animal.move();
+        assertEquals(3, reported.size(), "Removed listener should not be called");
+    }
 }
@@ -0,0 +1,134 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.Simulation;
+import agh.ics.oop.model.variants.EMapVariant;
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTest {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("checkpoints");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(tempDir);
+    }
+
+    private WorldConfig.Builder builder() {
+        return new WorldConfig.Builder()
+                .mapWidth(20)
+                .mapHeight(20)
+                .initialAnimalCount(40)
+                .initialPlantCount(60)
+                .dailyGrassGrowth(12)
+                .seed(21)
+                .checkpointDir(tempDir.toString())
+                .checkpointInterval(15);
+    }
+
+    // everything the next epochs depend on, animals in storage order
+    private static String describe(AbstractWorldMap map) {
+        StringBuilder sb = new StringBuilder();
+        for (Animal animal : map.getAllAnimals()) {
+            sb.append(animal.getId()).append(animal.getPosition()).append(animal.getDirection())
+                    .append(' ').append(animal.getEnergy()).append(' ').append(animal.getDaysLived())
+                    .append(' ').append(animal.getChildren()).append(' ').append(animal.getCurrentGen())
+                    .append(Arrays.toString(animal.getGenome().getGenome())).append(';');
+        }
+        for (Vector2d position : map.getGrassesMap().keySet()) {
+            sb.append(position);
+        }
+        BitSet fires = new BitSet();
+        if (map instanceof FireWorldMap fireMap) {
+            fireMap.collectFireCells(fires);
+        }
+        return sb.append(fires).toString();
+    }
+
+    private void assertResumesExactly(WorldConfig config) throws IOException {
+        Simulation live = new Simulation(config, List.of());
+        List<String> states = new ArrayList<>();
+        List<Object> stats = new ArrayList<>();
+        for (int epoch = 1; epoch <= 25; epoch++) {
+            live.step();
+            if (epoch >= 15) {
+                states.add(describe(live.getMap()));
+                stats.add(live.getStats());
+            }
+        }
+        live.close();
+        assertFalse(live.getMap().getAllAnimals().isEmpty(), "The population should survive the run");
+        Path file = tempDir.resolve("checkpoint_" + live.getMap().getId() + ".bin");
+        assertTrue(Files.exists(file), "Checkpoint should be written at epoch 15");
+
+        Simulation resumed = new Simulation(file, List.of());
+        assertNotEquals(live.getMap().getId(), resumed.getMap().getId(), "Resumed run should get its own map");
+        for (int i = 0; i < states.size(); i++) {
+            if (i > 0) {
+                resumed.step();
+            }
+            assertEquals(states.get(i), describe(resumed.getMap()), "Map should match after epoch " + (15 + i));
+            assertEquals(stats.get(i), resumed.getStats(), "Stats should match after epoch " + (15 + i));
+        }
+        resumed.close();
+    }
+
+    @Test
+    void testResumesStandardMap() throws IOException {
+        assertResumesExactly(builder().build());
+    }
+
+    @Test
+    void testResumesFireMap() throws IOException {
+        assertResumesExactly(builder().mapVariant(EMapVariant.FIRE).fireMaxAge(3).fireFreq(4).build());
+    }
+
+    @Test
+    void testResumesGridWithPopulationStore() throws IOException {
+        assertResumesExactly(builder().storageVariant(EStorageVariant.GRID).populationStore(true).epochThreads(2).build());
+    }
+
+    @Test
+    void testReadsHeader() throws IOException {
+        WorldConfig config = builder().checkpointInterval(5).build();
+        Simulation live = new Simulation(config, List.of());
+        for (int epoch = 0; epoch < 12; epoch++) {
+            live.step();
+        }
+        live.close();
+
+        Checkpoint checkpoint = Checkpoint.read(tempDir.resolve("checkpoint_" + live.getMap().getId() + ".bin"));
+        assertEquals(10, checkpoint.getEpoch(), "Latest checkpoint should replace the earlier one");
+        assertEquals(config.toValues(), checkpoint.getConfig().toValues(), "Config should be read back");
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("not_a_checkpoint.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+}
@@ -0,0 +1,100 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadAnimalArchiveTest {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("dead-animals");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(tempDir);
+    }
+
+    private Animal deadAnimal(WorldConfig config, Globe globe, int lifespan, int children) {
+        Animal animal = new Animal(new Vector2d(1, 1), config, globe);
+        for (int i = 0; i < lifespan; i++) {
+            animal.move();
+        }
+        animal.setChildrenCount(children);
+        return animal;
+    }
+
+    @Test
+    void testKeepsOnlyRecentAnimalsButCountsAll() {
+        WorldConfig config = new WorldConfig.Builder().build();
+        GrassField map = new GrassField(9, 9, 0, List.of(), EStorageVariant.HASH);
+        DeadAnimalArchive archive = new DeadAnimalArchive(3, null);
+        Animal last = null;
+        for (int i = 0; i < 10; i++) {
+            last = deadAnimal(config, map, i, i % 2);
+            archive.add(last);
+        }
+
+        assertEquals(3, archive.getRecent().size(), "Only the most recent animals should stay in memory");
+        assertSame(last, archive.getRecent().get(2), "Newest animal should be last");
+        assertEquals(10, archive.getCount());
+        assertEquals(45, archive.getLifespanSum(), "Lifespans of all dead animals should be summed");
+        assertEquals(5, archive.getChildrenSum());
+    }
+
+    @Test
+    void testLogsEveryDeadAnimal() throws IOException {
+        WorldConfig config = new WorldConfig.Builder().build();
+        GrassField map = new GrassField(9, 9, 0, List.of(), EStorageVariant.HASH);
+        Path logFile = tempDir.resolve("dead.csv");
+        try (DeadAnimalArchive archive = new DeadAnimalArchive(0, logFile)) {
+            archive.add(deadAnimal(config, map, 2, 1));
+            archive.add(deadAnimal(config, map, 4, 0));
+            assertTrue(archive.getRecent().isEmpty(), "Nothing should be kept in memory with capacity 0");
+        }
+
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(3, lines.size(), "Header and one line per animal expected");
+        assertEquals(DeadAnimalArchive.LOG_HEADER, lines.get(0));
+        assertTrue(lines.get(1).contains(",2,1,"), "Line should hold lifespan and children: " + lines.get(1));
+    }
+
+    @Test
+    void testSimulationStatsDoNotDependOnTheCap() {
+        WorldConfig config = new WorldConfig.Builder()
+                .seed(3)
+                .deadAnimalsInMemory(2)
+                .deadAnimalLogDir(tempDir.toString())
+                .build();
+        AbstractWorldMap map = new MapBuilder().createMap(config, List.of());
+        SimulationHelper helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(config.getInitialAnimalCount());
+        for (int epoch = 0; epoch < 80 && !map.getAllAnimals().isEmpty(); epoch++) {
+            helper.runEpoch();
+        }
+
+        DeadAnimalArchive archive = map.getDeadAnimalArchive();
+        assertTrue(archive.getCount() > 2, "Run should kill more animals than the cap");
+        assertEquals(2, map.getDeadAnimals().size(), "Map should keep only the capped number of dead animals");
+        double average = (double) Math.round((double) archive.getLifespanSum() / archive.getCount() * 100) / 100;
+        assertEquals(average, helper.getStats().get("Average Lifespan"));
+        assertTrue(Files.exists(archive.getLogFile()), "Log should be written to the configured directory");
+    }
+}
@@ -0,0 +1,128 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EEpochCounter;
+import agh.ics.oop.model.variants.EEpochPhase;
+import agh.ics.oop.model.variants.EMapVariant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochMetricsTest {
+    private WorldConfig config;
+
+    private SimulationHelper createHelper(boolean metricsEnabled) {
+        config = new WorldConfig.Builder()
+                .mapVariant(EMapVariant.STANDARD)
+                .epochThreads(1)
+                .metricsEnabled(metricsEnabled)
+                .build();
+        AbstractWorldMap map = new MapBuilder().createMap(config, List.of());
+        SimulationHelper helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(config.getInitialAnimalCount());
+        return helper;
+    }
+
+    @Test
+    void testDisabledMetricsRecordNothing() {
+        SimulationHelper helper = createHelper(false);
+        for (int i = 0; i < 5; i++) {
+            helper.runEpoch();
+        }
+
+        EpochMetrics metrics = helper.getMetrics();
+        assertEquals(0, metrics.getEpochs(), "Disabled metrics should not count epochs");
+        assertEquals(0, metrics.getTotalNanos(EEpochPhase.MOVE), "Disabled metrics should not time phases");
+        assertEquals(0, metrics.getTotal(EEpochCounter.ANIMALS_MOVED), "Disabled metrics should not count animals");
+    }
+
+    @Test
+    void testCountersMatchPopulation() {
+        SimulationHelper helper = createHelper(true);
+        for (int i = 0; i < 30; i++) {
+            helper.runEpoch();
+        }
+
+        EpochMetrics metrics = helper.getMetrics();
+        assertEquals(30, metrics.getEpochs());
+        long alive = helper.getStats().get("Total Animals") instanceof Integer count ? count : -1;
+        assertEquals(config.getInitialAnimalCount() + metrics.getTotal(EEpochCounter.BIRTHS), alive + metrics.getTotal(EEpochCounter.DEATHS),
+                "Every animal is either alive or counted as dead");
+        assertTrue(metrics.getTotalNanos(EEpochPhase.MOVE) > 0, "Movement should be timed");
+        assertEquals(0, metrics.getTotalNanos(EEpochPhase.FIRE), "There is no fire on a standard map");
+        assertTrue(metrics.getMax(EEpochCounter.ANIMALS_MOVED) >= metrics.getLast(EEpochCounter.ANIMALS_MOVED));
+    }
+
+    @Test
+    void testEnablingTakesEffectFromTheNextEpoch() {
+        EpochMetrics metrics = new EpochMetrics(false);
+        metrics.epochStarted();
+        long start = metrics.startPhase();
+        metrics.setEnabled(true);
+        metrics.endPhase(EEpochPhase.MOVE, start);
+        metrics.count(EEpochCounter.BIRTHS, 2);
+
+        assertEquals(0, metrics.getTotalNanos(EEpochPhase.MOVE), "A phase started while disabled should not be timed");
+        assertEquals(0, metrics.getTotal(EEpochCounter.BIRTHS), "The rest of the epoch should not be recorded");
+
+        metrics.epochStarted();
+        metrics.count(EEpochCounter.BIRTHS, 2);
+        assertEquals(1, metrics.getEpochs());
+        assertEquals(2, metrics.getTotal(EEpochCounter.BIRTHS));
+    }
+
+    @Test
+    void testBurnedAnimalsAreCountedAsDeaths() {
+        config = new WorldConfig.Builder()
+                .mapVariant(EMapVariant.FIRE)
+                .fireMaxAge(3)
+                .fireFreq(2)
+                .initialPlantCount(60)
+                .initialAnimalCount(30)
+                .epochThreads(1)
+                .metricsEnabled(true)
+                .seed(3)
+                .build();
+        FireWorldMap map = (FireWorldMap) new MapBuilder().createMap(config, List.of());
+        SimulationHelper helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(config.getInitialAnimalCount());
+        for (int i = 0; i < 30; i++) {
+            helper.runEpoch();
+        }
+        helper.close();
+
+        EpochMetrics metrics = helper.getMetrics();
+        assertTrue(metrics.getTotal(EEpochCounter.CELLS_BURNED) > 0, "The map should have burned");
+        assertEquals(config.getInitialAnimalCount() + metrics.getTotal(EEpochCounter.BIRTHS),
+                map.getAllAnimals().size() + metrics.getTotal(EEpochCounter.DEATHS),
+                "Animals burned should be counted as dead");
+    }
+
+    @Test
+    void testLastValuesAreResetEveryEpoch() {
+        EpochMetrics metrics = new EpochMetrics(true);
+        metrics.epochStarted();
+        metrics.count(EEpochCounter.BIRTHS, 3);
+        metrics.epochStarted();
+        metrics.count(EEpochCounter.BIRTHS, 1);
+
+        assertEquals(1, metrics.getLast(EEpochCounter.BIRTHS));
+        assertEquals(4, metrics.getTotal(EEpochCounter.BIRTHS));
+        assertEquals(3, metrics.getMax(EEpochCounter.BIRTHS));
+    }
+
+    @Test
+    void testExportContainsEveryMetric() {
+        EpochMetrics metrics = new EpochMetrics(true);
+        metrics.epochStarted();
+        metrics.count(EEpochCounter.DEATHS, 2);
+
+        String[] lines = metrics.toCsv().split("\n");
+        assertEquals(1 + EEpochPhase.values().length + EEpochCounter.values().length, lines.length,
+                "CSV should have a header and one line per metric");
+        assertTrue(metrics.toCsv().contains("deaths,2,2,2.0,2"));
+        assertTrue(metrics.toJson().startsWith("{\"epochs\":1,"));
+        assertTrue(metrics.toJson().contains("\"move_nanos\":{"));
+    }
+}
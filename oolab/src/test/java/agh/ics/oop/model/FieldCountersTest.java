@@ -0,0 +1,74 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldCountersTest {
+    private FireWorldMap map;
+    private WorldConfig config;
+
+    // 5x5 map has 6x6 fields, the equator spans rows 2..3
+    private final int allFields = 36;
+    private final int equatorFields = 12;
+
+    @BeforeEach
+    void setUp() {
+        config = new WorldConfig.Builder().build();
+        map = new FireWorldMap(5, 5, 0, List.of());
+    }
+
+    @Test
+    void testInitialCounters() {
+        assertEquals(equatorFields, map.calculateFreeFieldsInsideEquator());
+        assertEquals(allFields - equatorFields, map.calculateFreeFieldsOutsideEquator());
+        assertEquals(allFields, map.calculateEmptyFields());
+    }
+
+    @Test
+    void testGrassChangesCounters() {
+        Vector2d inside = new Vector2d(1, 2);
+        Vector2d outside = new Vector2d(1, 0);
+        map.addGrass(new Grass(inside));
+        map.getGrassesMap().put(outside, new Grass(outside));
+
+        assertEquals(equatorFields - 1, map.calculateFreeFieldsInsideEquator());
+        assertEquals(allFields - equatorFields - 1, map.calculateFreeFieldsOutsideEquator());
+        assertEquals(allFields - 2, map.calculateEmptyFields());
+
+        map.removeGrass(inside);
+        map.getGrassesMap().clear();
+        assertEquals(equatorFields, map.calculateFreeFieldsInsideEquator());
+        assertEquals(allFields, map.calculateEmptyFields());
+    }
+
+    @Test
+    void testAnimalsChangeOnlyEmptyFields() throws Exception {
+        Vector2d position = new Vector2d(3, 3);
+        map.place(new Animal(position, config, map));
+        map.place(new Animal(position, config, map));
+        assertEquals(allFields - 1, map.calculateEmptyFields(), "Two animals on one field occupy one field");
+        assertEquals(equatorFields, map.calculateFreeFieldsInsideEquator(), "Animals do not block grass");
+
+        map.addGrass(new Grass(position));
+        map.getStorage().clearAnimals();
+        assertEquals(allFields - 1, map.calculateEmptyFields(), "Grass still occupies the field");
+    }
+
+    @Test
+    void testFireKeepsFieldBlockedUntilItBurnsOut() {
+        Vector2d position = new Vector2d(2, 2);
+        map.addGrass(new Grass(position));
+        map.addFire(position);
+        assertEquals(equatorFields - 1, map.calculateFreeFieldsInsideEquator(), "Fire blocks grass");
+        assertEquals(allFields - 1, map.calculateEmptyFields());
+
+        map.spreadFire(0, false);
+        assertEquals(0, map.getFireCount());
+        assertEquals(equatorFields, map.calculateFreeFieldsInsideEquator());
+        assertEquals(allFields, map.calculateEmptyFields());
+    }
+}
@@ -0,0 +1,113 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileMapDisplayTest {
+
+    private Path tempDir;
+    private FireWorldMap map;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("map-log");
+        map = new FireWorldMap(3, 3, 0, List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(tempDir);
+    }
+
+    private static long count(String text, String part) {
+        return text.lines().filter(line -> line.contains(part)).count();
+    }
+
+    @Test
+    void testDrawsTheMapEverySnapshotInterval() throws IOException {
+        FileMapDisplay display = new FileMapDisplay(tempDir.resolve("map.log"), 0, false, 3);
+        for (int i = 1; i <= 7; i++) {
+            display.mapChanged(map, "Epoch " + i + " ended");
+        }
+        display.close();
+
+        String log = Files.readString(display.getLogFile());
+        assertEquals(7, count(log, ") Update #"), "Every update should be logged");
+        String drawing = map.toString();
+        int snapshots = 0;
+        for (int at = log.indexOf(drawing); at >= 0; at = log.indexOf(drawing, at + 1)) {
+            snapshots++;
+        }
+        assertEquals(3, snapshots, "Updates 1, 4 and 7 should draw the map");
+    }
+
+    @Test
+    void testRotatesWhenTheLogGrowsTooBig() throws IOException {
+        FileMapDisplay display = new FileMapDisplay(tempDir.resolve("map.log"), 200, false, 1);
+        for (int i = 1; i <= 200; i++) {
+            display.mapChanged(map, "Epoch " + i + " ended");
+        }
+        display.close();
+
+        assertTrue(Files.exists(display.rotatedFile(1)), "Log should have been rotated");
+        assertTrue(Files.exists(display.rotatedFile(FileMapDisplay.ROTATED_FILES)));
+        assertFalse(Files.exists(display.rotatedFile(FileMapDisplay.ROTATED_FILES + 1)),
+                "Only " + FileMapDisplay.ROTATED_FILES + " rotated files should be kept");
+        String latest = Files.exists(display.getLogFile())
+                ? Files.readString(display.getLogFile()) + Files.readString(display.rotatedFile(1))
+                : Files.readString(display.rotatedFile(1));
+        assertTrue(latest.contains("Update #200: Epoch 200 ended"), "Latest update should be in the newest files");
+    }
+
+    @Test
+    void testWritesGzip() throws IOException {
+        FileMapDisplay display = new FileMapDisplay(tempDir.resolve("map.log"), 0, true, 1);
+        display.mapChanged(map, "Epoch 1 ended");
+        display.close();
+        display.mapChanged(map, "Epoch 2 ended");
+        display.close();
+
+        assertTrue(display.getLogFile().toString().endsWith(".gz"));
+        String log;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(display.getLogFile()))) {
+            log = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, count(log, ") Update #"), "Both sessions should be readable from the appended file");
+    }
+
+    @Test
+    void testReopenedGzipLogIsCountedBeforeCompression() throws IOException {
+        FileMapDisplay first = new FileMapDisplay(tempDir.resolve("map.log"), 0, true, 1);
+        for (int i = 1; i <= 20; i++) {
+            first.mapChanged(map, "Epoch " + i + " ended");
+        }
+        first.close();
+        long uncompressed;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(first.getLogFile()))) {
+            uncompressed = in.readAllBytes().length;
+        }
+        assertTrue(Files.size(first.getLogFile()) < uncompressed, "The drawings should compress");
+
+        FileMapDisplay second = new FileMapDisplay(tempDir.resolve("map.log"), uncompressed + 10, true, 1);
+        second.mapChanged(map, "Epoch 21 ended");
+        second.close();
+        assertTrue(Files.exists(second.rotatedFile(1)), "The reopened log should be rotated once it grows too big");
+    }
+}
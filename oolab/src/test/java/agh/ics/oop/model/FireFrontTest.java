@@ -0,0 +1,86 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FireFrontTest {
+
+    private static final List<Vector2d> NEIGHBOURS = List.of(
+            new Vector2d(1, 0), new Vector2d(-1, 0), new Vector2d(0, 1), new Vector2d(0, -1));
+
+    @Test
+    void testSpreadMatchesBurningEveryFire() {
+        int size = 15;
+        int maxAge = 3;
+        SplittableRandom random = new SplittableRandom(11);
+        FireWorldMap map = new FireWorldMap(size, size, 0, List.of());
+        // fire spreading from every fire on every spread, with fire ages kept per position
+        Map<Vector2d, Integer> fires = new HashMap<>();
+        Set<Vector2d> grass = new HashSet<>();
+
+        for (int spread = 0; spread < 60; spread++) {
+            for (int i = 0; i < 25; i++) {
+                Vector2d position = new Vector2d(random.nextInt(size + 1), random.nextInt(size + 1));
+                if (!fires.containsKey(position) && grass.add(position)) {
+                    map.addGrass(new Grass(position));
+                }
+            }
+            if (spread % 10 == 0) {
+                Vector2d position = grass.iterator().next();
+                assertTrue(map.addFire(position), "Grass should catch fire");
+                grass.remove(position);
+                fires.put(position, 1);
+            }
+
+            map.spreadFire(maxAge, false);
+            List<Vector2d> spreading = new ArrayList<>();
+            fires.entrySet().removeIf(fire -> fire.getValue() > maxAge);
+            fires.replaceAll((position, age) -> age + 1);
+            for (Vector2d position : fires.keySet()) {
+                for (Vector2d neighbour : NEIGHBOURS) {
+                    spreading.add(position.add(neighbour));
+                }
+            }
+            for (Vector2d position : spreading) {
+                if (grass.remove(position)) {
+                    fires.put(position, 1);
+                }
+            }
+
+            assertEquals(fires.size(), map.getFireCount(), "Fire count after spread " + spread);
+            assertEquals(grass.size(), map.getGrassCount(), "Grass count after spread " + spread);
+            for (Map.Entry<Vector2d, Integer> fire : fires.entrySet()) {
+                Fire element = (Fire) map.objectAt(fire.getKey()).get(0);
+                assertEquals((int) fire.getValue(), element.getAge(), "Age of fire at " + fire.getKey());
+            }
+        }
+    }
+
+    @Test
+    void testRegrownGrassNextToFireCatchesFire() {
+        FireWorldMap map = new FireWorldMap(5, 5, 0, List.of());
+        Vector2d burning = new Vector2d(2, 2);
+        Vector2d regrown = new Vector2d(2, 3);
+        map.addGrass(new Grass(burning));
+        map.addFire(burning);
+        map.spreadFire(5, false);
+
+        map.addGrass(new Grass(regrown));
+        assertEquals(1, map.spreadFire(5, false), "Grass grown next to an old fire should catch fire");
+        assertFalse(map.hasGrass(regrown));
+    }
+
+    @Test
+    void testStartFireNeedsGrass() {
+        FireWorldMap map = new FireWorldMap(5, 5, 0, List.of());
+        assertFalse(map.startFire(), "Fire can not start without grass");
+
+        Vector2d position = new Vector2d(4, 1);
+        map.addGrass(new Grass(position));
+        assertTrue(map.startFire());
+        assertTrue(map.objectAt(position).get(0) instanceof Fire, "The only grass should be set on fire");
+    }
+}
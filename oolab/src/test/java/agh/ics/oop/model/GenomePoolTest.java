@@ -0,0 +1,61 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenomePoolTest {
+    private WorldConfig config;
+    private GenomePool pool;
+
+    @BeforeEach
+    void setUp() {
+        config = new WorldConfig.Builder().build();
+        pool = new GenomePool();
+    }
+
+    private Genome genomeOf(int... genes) {
+        return Genome.fromGenes(config, genes);
+    }
+
+    @Test
+    void testGenomesWithSameGenesShareId() {
+        Genome first = genomeOf(1, 2, 3, 4, 5);
+        Genome second = genomeOf(1, 2, 3, 4, 5);
+        Genome other = genomeOf(5, 4, 3, 2, 1);
+        pool.acquire(first);
+        pool.acquire(second);
+        pool.acquire(other);
+
+        assertEquals(first, second, "Genomes with the same genes should be equal");
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.getId(), second.getId(), "Genomes with the same genes should share the id");
+        assertNotEquals(first.getId(), other.getId());
+        assertEquals(2, pool.countCarriers(first));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testDominantGenomesFollowBirthsAndDeaths() {
+        Genome common = genomeOf(0, 0, 0, 0, 0);
+        Genome rare = genomeOf(7, 7, 7, 7, 7);
+        pool.acquire(common);
+        pool.acquire(genomeOf(0, 0, 0, 0, 0));
+        pool.acquire(rare);
+
+        assertEquals(common, pool.dominantGenome());
+        assertEquals(List.of(common, rare), pool.dominantGenomes(5), "Top genomes should be ordered by carriers");
+
+        pool.release(common);
+        pool.release(common);
+        assertEquals(rare, pool.dominantGenome(), "Genome of the last living carriers should become dominant");
+        assertEquals(0, pool.countCarriers(common));
+
+        pool.release(rare);
+        assertNull(pool.dominantGenome(), "No genome is dominant without animals");
+        assertEquals(0, pool.size(), "Genomes without carriers should be forgotten");
+    }
+}
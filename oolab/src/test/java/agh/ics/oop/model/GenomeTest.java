@@ -0,0 +1,111 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMutationVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenomeTest {
+    // longer than two packed words
+    private static final int LENGTH = 50;
+    private WorldConfig config;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @BeforeEach
+    void setUp() {
+        config = new WorldConfig.Builder().genomeLength(LENGTH).minMutations(0).maxMutations(0).build();
+    }
+
+    private int[] genesOf(int seed) {
+        int[] genes = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            genes[i] = (i * 7 + seed) % 8;
+        }
+        return genes;
+    }
+
+    private Animal animalWith(int[] genes, int energy) {
+        Animal animal = new Animal(new Vector2d(0, 0), MapDirection.NORTH, config, Genome.fromGenes(config, genes), null);
+        animal.setEnergy(energy);
+        return animal;
+    }
+
+    @Test
+    void testPackedGenesRoundTrip() {
+        int[] genes = genesOf(3);
+        Genome genome = Genome.fromGenes(config, genes);
+
+        assertArrayEquals(genes, genome.getGenome(), "Every gene should be read back unchanged");
+        for (int i = 0; i < LENGTH; i++) {
+            assertEquals(genes[i], genome.getCurrentGene(), "Active gene " + i);
+        }
+        assertEquals(genes[0], genome.getCurrentGene(), "Active gene should wrap around");
+    }
+
+    @Test
+    void testGetGenomeReturnsCopy() {
+        Genome genome = Genome.fromGenes(config, genesOf(1));
+        genome.getGenome()[0] = 7;
+        assertEquals(genesOf(1)[0], genome.getGene(0), "Changing the returned array must not change the genome");
+    }
+
+    @Test
+    void testRandomGenomeGenesAreInRange() {
+        for (int n = 0; n < 100; n++) {
+            Genome genome = Genome.randomGenome(config, random);
+            for (int gene : genome.getGenome()) {
+                assertTrue(gene >= genome.getMinGeneValue() && gene <= genome.getMaxGeneValue());
+            }
+            assertEquals(genome, Genome.fromGenes(config, genome.getGenome()),
+                    "Random genome should equal the genome built from its genes");
+        }
+    }
+
+    @Test
+    void testCrossoverTakesPrefixAndSuffixFromParents() {
+        int[] strongGenes = genesOf(0);
+        int[] weakGenes = genesOf(5);
+        Animal strong = animalWith(strongGenes, 70);
+        Animal weak = animalWith(weakGenes, 30);
+        int cut = Math.round(70f / 100f * LENGTH);
+
+        int[] strongLeft = new int[LENGTH];
+        int[] strongRight = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            strongLeft[i] = i < cut ? strongGenes[i] : weakGenes[i];
+            strongRight[i] = i < LENGTH - cut ? weakGenes[i] : strongGenes[i];
+        }
+
+        for (int n = 0; n < 50; n++) {
+            int[] child = strong.getGenome().reproductionGenome(strong, weak, random).getGenome();
+            assertTrue(Arrays.equals(strongLeft, child) || Arrays.equals(strongRight, child),
+                    "Child should get the stronger parent's genes on one side of the cut");
+        }
+    }
+
+    @Test
+    void testSmallShiftMutationChangesOneGeneByOne() {
+        config = new WorldConfig.Builder().genomeLength(LENGTH).minMutations(1).maxMutations(1)
+                .mutationVariant(EMutationVariant.SMALL_SHIFT).build();
+        int[] genes = genesOf(2);
+        Animal parent1 = animalWith(genes, 50);
+        Animal parent2 = animalWith(genes, 50);
+
+        for (int n = 0; n < 50; n++) {
+            int[] child = parent1.getGenome().reproductionGenome(parent1, parent2, random).getGenome();
+            int changed = 0;
+            for (int i = 0; i < LENGTH; i++) {
+                if (child[i] != genes[i]) {
+                    changed++;
+                    int difference = Math.floorMod(child[i] - genes[i], 8);
+                    assertTrue(difference == 1 || difference == 7, "Small shift changes a gene by one");
+                }
+            }
+            assertEquals(1, changed, "Exactly one gene should mutate");
+        }
+    }
+}
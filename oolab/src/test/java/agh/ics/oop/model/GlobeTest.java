@@ -0,0 +1,49 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobeTest {
+    private final AbstractWorldMap map = new FireWorldMap(4, 3, 0, List.of());
+
+    @Test
+    void testNextStepMatchesNextPosition() {
+        for (int x = 0; x <= 4; x++) {
+            for (int y = 0; y <= 3; y++) {
+                for (MapDirection direction : MapDirection.values()) {
+                    Vector2d position = new Vector2d(x, y);
+                    Move expected = map.nextPosition(new Move(position, direction));
+                    long step = map.nextStep(map.cellOf(position), direction.ordinal());
+
+                    assertEquals(expected.getPosition(), map.positionOf(Globe.stepCell(step)),
+                            "Wrong position for " + position + " " + direction.name());
+                    assertEquals(expected.getDirection(), MapDirection.fromOrdinal(Globe.stepDirection(step)),
+                            "Wrong direction for " + position + " " + direction.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWrapAroundSides() {
+        long step = map.nextStep(map.cellOf(new Vector2d(4, 1)), MapDirection.EAST.ordinal());
+        assertEquals(new Vector2d(0, 1), map.positionOf(Globe.stepCell(step)));
+        assertEquals(MapDirection.EAST.ordinal(), Globe.stepDirection(step));
+    }
+
+    @Test
+    void testBounceOffPoles() {
+        long step = map.nextStep(map.cellOf(new Vector2d(2, 3)), MapDirection.NORTHEAST.ordinal());
+        assertEquals(new Vector2d(3, 3), map.positionOf(Globe.stepCell(step)));
+        assertEquals(MapDirection.SOUTHWEST.ordinal(), Globe.stepDirection(step));
+    }
+
+    @Test
+    void testPositionsAreShared() {
+        int cell = map.cellOf(new Vector2d(1, 2));
+        assertSame(map.positionOf(cell), map.positionOf(cell), "Cell positions should be cached");
+    }
+}
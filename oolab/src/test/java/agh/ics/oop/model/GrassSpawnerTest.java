@@ -0,0 +1,71 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrassSpawnerTest {
+    private FireWorldMap map;
+
+    // 5x5 map has 6x6 fields, the equator spans rows 2..3
+    private final int allFields = 36;
+    private final int equatorFields = 12;
+
+    @BeforeEach
+    void setUp() {
+        map = new FireWorldMap(5, 5, 0, List.of());
+    }
+
+    @Test
+    void testSpawnsExactCountOnNearlyFullMap() {
+        map.spawnGrass(allFields - 1);
+        assertEquals(allFields - 1, map.getGrassCount(), "Every requested grass should be spawned");
+
+        map.spawnGrass(5);
+        assertEquals(allFields, map.getGrassCount(), "Only the last free field can be used");
+        assertEquals(0, map.calculateFreeFieldsInsideEquator() + map.calculateFreeFieldsOutsideEquator());
+    }
+
+    @Test
+    void testPrefersEquator() {
+        map.spawnGrass(10);
+        assertEquals(equatorFields - 8, map.calculateFreeFieldsInsideEquator(), "80% of grass should grow on the equator");
+        assertEquals(allFields - equatorFields - 2, map.calculateFreeFieldsOutsideEquator());
+    }
+
+    @Test
+    void testFullEquatorSpillsOutside() {
+        map.spawnGrass(20);
+        assertEquals(0, map.calculateFreeFieldsInsideEquator());
+        assertEquals(allFields - equatorFields - 8, map.calculateFreeFieldsOutsideEquator());
+    }
+
+    @Test
+    void testGrassNeverGrowsOnFire() {
+        Vector2d position = new Vector2d(0, 2);
+        map.addGrass(new Grass(position));
+        map.addFire(position);
+        map.spawnGrass(allFields);
+        assertFalse(map.hasGrass(position), "Burning field is not free");
+        assertEquals(allFields - 1, map.getGrassCount());
+    }
+
+    @Test
+    void testPoolSwapRemove() {
+        FreeCellPool pool = new FreeCellPool(4);
+        pool.add(0);
+        pool.add(2);
+        pool.add(3);
+        pool.remove(0);
+        pool.remove(0);
+
+        assertEquals(2, pool.size());
+        assertFalse(pool.contains(0));
+        int cell = pool.randomCell(new Random());
+        assertTrue(cell == 2 || cell == 3, "Only cells in the pool can be drawn");
+    }
+}
@@ -0,0 +1,93 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridCellStorageTest {
+    private GridCellStorage storage;
+    private WorldConfig config;
+    private AbstractWorldMap map;
+
+    @BeforeEach
+    void setUp() {
+        config = new WorldConfig.Builder().build();
+        map = new GrassField(4, 3, 0, EStorageVariant.GRID);
+        storage = new GridCellStorage(5, 4);
+    }
+
+    @Test
+    void testIndexAndPositionRoundTrip() {
+        Vector2d position = new Vector2d(3, 2);
+        assertEquals(2 * 5 + 3, storage.index(position), "Cells should be indexed row by row");
+        assertEquals(position, storage.positionOf(storage.index(position)));
+        assertFalse(storage.inside(new Vector2d(5, 0)), "Column 5 is outside of a 5 wide grid");
+    }
+
+    @Test
+    void testAddAndRemoveAnimals() {
+        Animal first = new Animal(new Vector2d(1, 1), config, map);
+        Animal second = new Animal(new Vector2d(1, 1), config, map);
+        storage.addAnimal(first);
+        storage.addAnimal(second);
+
+        assertEquals(List.of(first, second), storage.animalsAt(new Vector2d(1, 1)));
+        assertTrue(storage.removeAnimal(new Vector2d(1, 1), first));
+        assertEquals(List.of(second), storage.allAnimals());
+        assertNull(storage.animalsAt(new Vector2d(0, 0)), "Unused cells should not be visible");
+    }
+
+    @Test
+    void testClearAnimalsReusesCellLists() {
+        Animal animal = new Animal(new Vector2d(2, 3), config, map);
+        storage.addAnimal(animal);
+        List<Animal> cell = storage.animalsAt(new Vector2d(2, 3));
+
+        storage.clearAnimals();
+        assertTrue(storage.animalsView().isEmpty(), "View should be empty after clearing");
+        storage.addAnimal(animal);
+        assertSame(cell, storage.animalsAt(new Vector2d(2, 3)), "Cell list should be reused");
+    }
+
+    @Test
+    void testGrassThroughView() {
+        Map<Vector2d, Grass> grassView = storage.grassView();
+        Vector2d position = new Vector2d(4, 0);
+        grassView.put(position, new Grass(position));
+
+        assertTrue(grassView.containsKey(position));
+        assertEquals(1, storage.grassCount());
+        assertEquals(List.of(position), new ArrayList<>(grassView.keySet()));
+
+        grassView.clear();
+        assertNull(storage.grassAt(position), "Grass should be removed through the view");
+        assertEquals(0, storage.grassCount());
+    }
+
+    @Test
+    void testAnimalsViewPutAndRemove() {
+        Vector2d position = new Vector2d(0, 2);
+        Animal animal = new Animal(position, config, map);
+        storage.animalsView().put(position, new ArrayList<>(List.of(animal)));
+
+        assertTrue(storage.hasAnimals(position));
+        assertEquals(1, storage.animalsView().size());
+        assertEquals(List.of(animal), storage.animalsView().remove(position));
+        assertFalse(storage.animalsView().containsKey(position));
+    }
+
+    @Test
+    void testMapUsesGridStorage() {
+        Vector2d corner = new Vector2d(4, 3);
+        map.addGrass(new Grass(corner));
+        assertInstanceOf(GridCellStorage.class, map.getStorage());
+        assertTrue(map.hasGrass(corner), "Upper right corner belongs to the map");
+        assertEquals(1, map.getGrassesMap().size());
+    }
+}
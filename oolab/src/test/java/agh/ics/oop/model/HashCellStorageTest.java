@@ -0,0 +1,75 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashCellStorageTest {
+    private HashCellStorage storage;
+    private WorldConfig config;
+    private AbstractWorldMap map;
+
+    @BeforeEach
+    void setUp() {
+        config = new WorldConfig.Builder().build();
+        map = new GrassField(4, 3, 0, EStorageVariant.HASH);
+        storage = new HashCellStorage();
+    }
+
+    @Test
+    void testClearAnimalsEmptiesCellListsInPlace() {
+        Animal animal = new Animal(new Vector2d(2, 3), config, map);
+        storage.addAnimal(animal);
+        List<Animal> cell = storage.animalsAt(new Vector2d(2, 3));
+
+        storage.clearAnimals();
+        assertFalse(storage.hasAnimals(new Vector2d(2, 3)), "Cleared cell should have no animals");
+        assertSame(cell, storage.animalsAt(new Vector2d(2, 3)), "Cleared cell should keep its list");
+        assertTrue(cell.isEmpty());
+        storage.addAnimal(animal);
+        assertSame(cell, storage.animalsAt(new Vector2d(2, 3)), "Animal coming back should reuse the list");
+
+        storage.clearAnimals();
+        storage.rebuild();
+        assertNull(storage.animalsAt(new Vector2d(2, 3)), "Rebuilding should drop the empty cell");
+        storage.addAnimal(new Animal(new Vector2d(0, 1), config, map));
+        assertSame(cell, storage.animalsAt(new Vector2d(0, 1)), "Dropped list should be handed to the next cell");
+        assertEquals(1, cell.size(), "Reused list should hold only the new animal");
+    }
+
+    @Test
+    void testCollectAnimals() {
+        Animal first = new Animal(new Vector2d(1, 1), config, map);
+        Animal second = new Animal(new Vector2d(3, 2), config, map);
+        storage.addAnimal(first);
+        storage.addAnimal(second);
+
+        List<Animal> target = new ArrayList<>(List.of(first));
+        storage.collectAnimals(target);
+        assertEquals(3, target.size(), "Animals should be added after the existing elements");
+        assertTrue(target.containsAll(List.of(first, second)));
+    }
+
+    @Test
+    void testOccupiedCountSurvivesMoves() {
+        WorldConfig moving = new WorldConfig.Builder().seed(9).build();
+        AbstractWorldMap seededMap = new MapBuilder().createMap(moving, List.of());
+        SimulationHelper helper = new SimulationHelper(seededMap, moving);
+        helper.generateStartingPositions(moving.getInitialAnimalCount());
+
+        for (int epoch = 0; epoch < 20; epoch++) {
+            int before = seededMap.getAllAnimals().size();
+            assertEquals(before, helper.moveAnimals(), "Every animal should move once");
+            assertEquals(before, seededMap.getAllAnimals().size(), "No animal should be lost while moving");
+            for (Animal animal : seededMap.getAllAnimals()) {
+                assertTrue(seededMap.getStorage().animalsAt(animal.getPosition()).contains(animal),
+                        "Animal should be in the cell of its position");
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineageGraphTest {
+
+    @Test
+    void testCountsDistinctDescendantsOverManyGenerations() {
+        LineageGraph lineage = new LineageGraph();
+        lineage.born(0, LineageGraph.NO_PARENT, LineageGraph.NO_PARENT);
+        lineage.born(1, LineageGraph.NO_PARENT, LineageGraph.NO_PARENT);
+        lineage.born(2, 0, 1);
+        lineage.born(3, 0, 2);
+        lineage.born(4, 2, 3);
+
+        assertArrayEquals(new int[]{3, 3, 2, 1, 0}, lineage.countDescendants(new int[]{0, 1, 2, 3, 4}),
+                "Every descendant should be counted once, however many ways it descends");
+        assertEquals(3, lineage.countDescendants(0), "Great-grandchildren should be counted");
+    }
+
+    @Test
+    void testTrackedCountMatchesScan() {
+        SplittableRandom random = new SplittableRandom(5);
+        LineageGraph lineage = new LineageGraph();
+        List<Integer> alive = new ArrayList<>();
+        int tracked = -1;
+        for (int id = 0; id < 3000; id++) {
+            if (alive.size() < 20) {
+                lineage.born(id, LineageGraph.NO_PARENT, LineageGraph.NO_PARENT);
+            } else {
+                lineage.born(id, alive.get(random.nextInt(alive.size())), alive.get(random.nextInt(alive.size())));
+                if (random.nextInt(3) > 0) {
+                    int dead = alive.remove(random.nextInt(alive.size()));
+                    if (dead != tracked) {
+                        lineage.died(dead);
+                    } else {
+                        alive.add(dead);
+                    }
+                }
+            }
+            alive.add(id);
+            if (id == 500) {
+                tracked = alive.get(0);
+                lineage.track(tracked);
+            }
+            if (tracked >= 0 && id % 100 == 0) {
+                assertEquals(lineage.countDescendants(new int[]{tracked})[0], lineage.countDescendants(tracked),
+                        "Tracked count should match a full scan after birth " + id);
+            }
+        }
+        assertTrue(lineage.countDescendants(tracked) > 0, "Tracked animal should have descendants");
+    }
+
+    @Test
+    void testBatchCountMatchesSingleCountsOverManyWords() {
+        SplittableRandom random = new SplittableRandom(11);
+        LineageGraph lineage = new LineageGraph();
+        for (int id = 0; id < 400; id++) {
+            if (id < 10) {
+                lineage.born(id, LineageGraph.NO_PARENT, LineageGraph.NO_PARENT);
+            } else {
+                lineage.born(id, random.nextInt(id), random.nextInt(id));
+            }
+        }
+        int[] ids = new int[150];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 2 * i + 1;
+        }
+
+        int[] counts = lineage.countDescendants(ids);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(lineage.countDescendants(new int[]{ids[i]})[0], counts[i], "Descendants of " + ids[i]);
+        }
+    }
+
+    @Test
+    void testDropsAnimalsOlderThanTheOldestLiving() {
+        LineageGraph lineage = new LineageGraph();
+        for (int id = 0; id < 100_000; id++) {
+            lineage.born(id, id > 0 ? id - 1 : LineageGraph.NO_PARENT, LineageGraph.NO_PARENT);
+            if (id >= 10) {
+                lineage.died(id - 10);
+            }
+        }
+        assertTrue(lineage.size() < 5000, "Lineage should not keep every animal, kept " + lineage.size());
+        assertEquals(9, lineage.countDescendants(100_000 - 10), "Descendants of living animals should be kept");
+    }
+
+    @Test
+    void testAnimalDescendantsFromItsMap() {
+        WorldConfig config = new WorldConfig.Builder().build();
+        GrassField map = new GrassField(9, 9, 0, List.of(), EStorageVariant.HASH);
+        Animal grandparent = new Animal(new Vector2d(1, 1), config, map);
+        Animal partner = new Animal(new Vector2d(1, 1), config, map);
+        Animal parent = grandparent.reproduce(partner);
+        Animal child = parent.reproduce(grandparent);
+
+        assertEquals(2, grandparent.getDescendants(), "Grandchild should count once, though it descends twice");
+        assertEquals(2, partner.getDescendants());
+        assertEquals(1, parent.getDescendants());
+        assertEquals(0, child.getDescendants());
+    }
+}
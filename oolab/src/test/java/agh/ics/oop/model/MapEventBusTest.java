@@ -0,0 +1,164 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapEventBusTest {
+
+    @Test
+    void testSlowListenerGetsMergedDeltas() throws InterruptedException {
+        FireWorldMap map = new FireWorldMap(5, 5, 0, List.of());
+        CountDownLatch release = new CountDownLatch(1);
+        List<MapDelta> received = new CopyOnWriteArrayList<>();
+        AtomicInteger drawRequests = new AtomicInteger();
+        MapChangeListener slow = new MapChangeListener() {
+            @Override
+            public void mapChanged(WorldMap worldMap, String message) {
+            }
+
+            @Override
+            public boolean needsMapText(long batch) {
+                drawRequests.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public void deltaPublished(WorldMap worldMap, MapDelta delta) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(delta);
+            }
+        };
+        MapEventBus bus = new MapEventBus(map, new CopyOnWriteArrayList<>(List.of(slow)));
+
+        for (int epoch = 1; epoch <= 10; epoch++) {
+            bus.animalBorn(new Vector2d(epoch % 5, 0));
+            bus.fireAdded(new Vector2d(1, 1));
+            bus.publish("Epoch " + epoch + " ended");
+        }
+        assertTrue(received.isEmpty(), "Publishing should not wait for the listener");
+        release.countDown();
+        bus.close();
+
+        assertEquals(10, bus.getPublished());
+        assertTrue(bus.getMerged() >= 8, "Epochs ending while the listener is busy should be merged");
+        assertEquals(10, received.stream().mapToInt(MapDelta::getEpochs).sum(), "No epoch should be lost");
+        assertEquals(10, received.stream().mapToInt(MapDelta::getBirths).sum());
+        assertEquals("Epoch 10 ended", received.get(received.size() - 1).getMessage());
+        assertTrue(drawRequests.get() <= 2, "Batches merged into a drawn delta should not be drawn again");
+        for (MapDelta delta : received) {
+            assertNotNull(delta.getMapText());
+            assertEquals(Set.of(new Vector2d(1, 1)), delta.getFiresAdded(), "Fires should be kept once per cell");
+        }
+    }
+
+    @Test
+    void testMapIsDrawnOnlyForListenersNeedingIt() throws InterruptedException {
+        FireWorldMap map = new FireWorldMap(5, 5, 0, List.of());
+        BlockingQueue<MapDelta> deltas = new LinkedBlockingQueue<>();
+        MapChangeListener sampling = new MapChangeListener() {
+            @Override
+            public void mapChanged(WorldMap worldMap, String message) {
+            }
+
+            @Override
+            public void deltaPublished(WorldMap worldMap, MapDelta delta) {
+                deltas.add(delta);
+            }
+
+            @Override
+            public boolean needsMapText(long batch) {
+                return batch % 3 == 1;
+            }
+        };
+        MapEventBus bus = new MapEventBus(map, new CopyOnWriteArrayList<>(List.of(sampling)));
+
+        for (int batch = 1; batch <= 6; batch++) {
+            bus.publish("Epoch " + batch + " ended");
+            MapDelta delta = deltas.poll(5, TimeUnit.SECONDS);
+            assertNotNull(delta, "Delta should be delivered");
+            assertEquals(batch % 3 == 1, delta.getMapText() != null, "Batch " + batch + " drawn");
+        }
+        bus.close();
+    }
+
+    @Test
+    void testFiresAreBatchedUntilTheEpochEnds() throws InterruptedException {
+        FireWorldMap map = new FireWorldMap(5, 5, 0, List.of());
+        List<String> messages = new ArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<MapDelta> deltas = new CopyOnWriteArrayList<>();
+        map.addObserver(new MapChangeListener() {
+            @Override
+            public void mapChanged(WorldMap worldMap, String message) {
+                messages.add(message);
+            }
+
+            @Override
+            public void deltaPublished(WorldMap worldMap, MapDelta delta) {
+                deltas.add(delta);
+                delivered.countDown();
+            }
+
+            @Override
+            public boolean needsMapText(long batch) {
+                return true;
+            }
+        });
+        map.useEventBus(new MapEventBus(map, map.observers));
+
+        Vector2d first = new Vector2d(1, 1);
+        Vector2d second = new Vector2d(3, 3);
+        map.addGrass(new Grass(first));
+        map.addGrass(new Grass(second));
+        map.addFire(first);
+        map.addFire(second);
+        assertTrue(messages.isEmpty(), "Fires should not be reported one by one");
+
+        String drawn = map.toString();
+        map.notifyObservers("Epoch 1 ended");
+        // the next epoch changes the map while the delta is delivered
+        map.addGrass(new Grass(new Vector2d(0, 0)));
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "Delta should be delivered");
+        map.getEventBus().close();
+        assertEquals(Set.of(first, second), deltas.get(0).getFiresAdded());
+        assertEquals(2, deltas.get(0).getChangedCells().size());
+        assertEquals(drawn, deltas.get(0).getMapText(), "The map should be drawn when the epoch ends");
+    }
+
+    @Test
+    void testFailingListenerDoesNotStopDelivery() throws InterruptedException {
+        FireWorldMap map = new FireWorldMap(5, 5, 0, List.of());
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(2);
+        List<MapChangeListener> listeners = new CopyOnWriteArrayList<>();
+        listeners.add((worldMap, message) -> {
+            throw new IllegalStateException("listener failure");
+        });
+        listeners.add((worldMap, message) -> {
+            first.countDown();
+            second.countDown();
+        });
+        MapEventBus bus = new MapEventBus(map, listeners);
+
+        bus.publish("Epoch 1 ended");
+        assertTrue(first.await(5, TimeUnit.SECONDS), "The other listener should get the first delta");
+        bus.publish("Epoch 2 ended");
+        assertTrue(second.await(5, TimeUnit.SECONDS), "Delivery should go on after a listener failed");
+        bus.close();
+    }
+}
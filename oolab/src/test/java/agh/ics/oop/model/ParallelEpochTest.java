@@ -0,0 +1,77 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelEpochTest {
+    private FireWorldMap map;
+    private WorldConfig config;
+    private ParallelEpoch parallelEpoch;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = new WorldConfig.Builder().build();
+        map = new FireWorldMap(9, 9, 0, List.of());
+        for (int y = 0; y <= 9; y++) {
+            map.place(new Animal(new Vector2d(y % 3, y), config, map));
+            map.place(new Animal(new Vector2d(y % 3, y), config, map));
+        }
+        parallelEpoch = new ParallelEpoch(map, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelEpoch.close();
+    }
+
+    @Test
+    void testStripsNeverExceedRows() {
+        assertEquals(10, parallelEpoch.getStrips(), "A 10 row map cannot have more than 10 strips");
+    }
+
+    @Test
+    void testMoveKeepsEveryAnimalAtItsPosition() {
+        Set<Animal> before = new HashSet<>(map.getAllAnimals());
+        parallelEpoch.moveAnimals();
+
+        assertEquals(before, new HashSet<>(map.getAllAnimals()), "No animal should be lost or duplicated");
+        for (Animal animal : map.getAllAnimals()) {
+            assertTrue(map.getStorage().animalsAt(animal.getPosition()).contains(animal),
+                    "Animal should be stored at " + animal.getPosition());
+            assertEquals(1, animal.getDaysLived());
+        }
+    }
+
+    @Test
+    void testStrongestAnimalEatsGrass() {
+        Vector2d position = new Vector2d(0, 0);
+        map.addGrass(new Grass(position));
+        parallelEpoch.eatGrass();
+
+        assertFalse(map.hasGrass(position), "Grass under animals should be eaten");
+        int energy = map.getStorage().animalsAt(position).stream().mapToInt(Animal::getEnergy).sum();
+        assertEquals(2 * config.getInitialAnimalEnergy() + config.getPlantEnergy(), energy,
+                "Exactly one animal should eat the grass");
+    }
+
+    @Test
+    void testReproductionAddsOneChildPerCell() {
+        parallelEpoch.reproduceAnimals();
+        assertEquals(30, map.getAllAnimals().size(), "Every pair should have one child");
+    }
+
+    @Test
+    void testDeadAnimalsAreRemoved() {
+        Animal animal = map.getStorage().animalsAt(new Vector2d(1, 1)).getFirst();
+        animal.setEnergy(0);
+        assertEquals(List.of(animal), parallelEpoch.removeDeadAnimals());
+        assertEquals(19, map.getAllAnimals().size());
+    }
+}
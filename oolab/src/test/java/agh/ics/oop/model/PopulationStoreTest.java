@@ -0,0 +1,97 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopulationStoreTest {
+
+    private Animal animal(WorldConfig config, Globe globe) {
+        return new Animal(new Vector2d(4, 8), MapDirection.EAST, config, Genome.fromGenes(config, new int[]{1, 3, 0, 7, 2}), globe);
+    }
+
+    @Test
+    void testAttachedAnimalMovesLikeItsOwnFields() {
+        WorldConfig config = new WorldConfig.Builder().build();
+        GrassField map = new GrassField(9, 9, 0, List.of(), EStorageVariant.HASH);
+        PopulationStore store = new PopulationStore(map, 0);
+        Animal plain = animal(config, map);
+        Animal view = animal(config, map);
+        view.attach(store);
+
+        for (int step = 1; step <= 40; step++) {
+            plain.move();
+            view.move();
+            assertEquals(plain.getPosition(), view.getPosition(), "Position after step " + step);
+            assertEquals(plain.getDirection(), view.getDirection(), "Direction after step " + step);
+            assertEquals(plain.getEnergy(), view.getEnergy(), "Energy after step " + step);
+            assertEquals(plain.getDaysLived(), view.getDaysLived(), "Age after step " + step);
+            assertEquals(plain.getCurrentGen(), view.getCurrentGen(), "Next gene after step " + step);
+        }
+    }
+
+    @Test
+    void testDetachKeepsStateAndFreesSlot() {
+        WorldConfig config = new WorldConfig.Builder().build();
+        GrassField map = new GrassField(9, 9, 0, List.of(), EStorageVariant.HASH);
+        PopulationStore store = new PopulationStore(map, 0);
+        Animal animal = animal(config, map);
+        animal.attach(store);
+        animal.move();
+        animal.eatGrass();
+        animal.setChildrenCount(3);
+        Vector2d position = animal.getPosition();
+        int energy = animal.getEnergy();
+
+        animal.detach();
+        assertEquals(0, store.size(), "Detached animal should leave the store");
+        assertEquals(position, animal.getPosition());
+        assertEquals(energy, animal.getEnergy());
+        assertEquals(3, animal.getChildren());
+        assertEquals(1, animal.getDaysLived());
+
+        animal(config, map).attach(store);
+        assertEquals(1, store.getSlotCount(), "Free slot should be reused");
+    }
+
+    @Test
+    void testSimulationWithStoreKeepsMapConsistent() {
+        WorldConfig config = new WorldConfig.Builder()
+                .mapVariant(EMapVariant.FIRE)
+                .fireMaxAge(2)
+                .fireFreq(3)
+                .seed(7)
+                .populationStore(true)
+                .build();
+        AbstractWorldMap map = new MapBuilder().createMap(config, List.of());
+        SimulationHelper helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(config.getInitialAnimalCount());
+        PopulationStore store = map.getPopulation();
+        assertNotNull(store, "Store should be created when enabled in the config");
+
+        Map<Animal, Vector2d> deadPositions = new HashMap<>();
+        for (int epoch = 1; epoch <= 60 && !map.getAllAnimals().isEmpty(); epoch++) {
+            helper.runEpoch();
+            List<Animal> animals = map.getAllAnimals();
+            assertEquals(animals.size(), store.size(), "Every living animal should be in the store in epoch " + epoch);
+            for (Animal animal : animals) {
+                assertTrue(map.getStorage().animalsAt(animal.getPosition()).contains(animal),
+                        "Animal should stand in the cell of its position in epoch " + epoch);
+            }
+            long energy = animals.stream().mapToLong(Animal::getEnergy).sum();
+            double average = animals.isEmpty() ? 0 : (double) Math.round((double) energy / animals.size() * 100) / 100;
+            assertEquals(average, map.wObserver.getStats().get("Average Energy"), "Average energy in epoch " + epoch);
+
+            for (Animal dead : map.getDeadAnimals()) {
+                Vector2d position = deadPositions.computeIfAbsent(dead, Animal::getPosition);
+                assertEquals(position, dead.getPosition(), "Dead animal should keep its last position");
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("snapshots");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(tempDir);
+    }
+
+    // grass, fires and living animals in id order, as the reader reports them
+    private static String describe(AbstractWorldMap map) {
+        BitSet grass = new BitSet();
+        map.getGrassesMap().keySet().forEach(position -> grass.set(map.cellOf(position)));
+        BitSet fires = new BitSet();
+        if (map instanceof FireWorldMap fireMap) {
+            fireMap.collectFireCells(fires);
+        }
+        List<Animal> animals = new ArrayList<>(map.getAllAnimals());
+        animals.sort(Comparator.comparingInt(Animal::getId));
+        StringBuilder sb = new StringBuilder().append(grass).append(fires);
+        for (Animal animal : animals) {
+            sb.append(animal.getId()).append(animal.getPosition()).append(animal.getDirection())
+                    .append(animal.getEnergy()).append(Arrays.toString(animal.getGenome().getGenome())).append(';');
+        }
+        return sb.toString();
+    }
+
+    private static String describe(SnapshotReader reader) {
+        StringBuilder sb = new StringBuilder().append(reader.getGrassCells()).append(reader.getFireCells());
+        for (int i = 0; i < reader.getAnimalCount(); i++) {
+            sb.append(reader.getAnimalId(i)).append(reader.getAnimalPosition(i)).append(reader.getAnimalDirection(i))
+                    .append(reader.getAnimalEnergy(i)).append(Arrays.toString(reader.getAnimalGenes(i))).append(';');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void testReaderReplaysEveryEpoch() throws IOException {
+        WorldConfig config = new WorldConfig.Builder()
+                .mapVariant(EMapVariant.FIRE)
+                .fireMaxAge(2)
+                .fireFreq(3)
+                .seed(9)
+                .snapshotDir(tempDir.toString())
+                .build();
+        AbstractWorldMap map = new MapBuilder().createMap(config, List.of());
+        SimulationHelper helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(config.getInitialAnimalCount());
+        List<String> states = new ArrayList<>();
+        states.add(describe(map));
+        for (int epoch = 1; epoch <= 40 && !map.getAllAnimals().isEmpty(); epoch++) {
+            helper.runEpoch();
+            states.add(describe(map));
+        }
+        helper.close();
+
+        Path file = tempDir.resolve("snapshot_" + map.getId() + ".bin");
+        try (SnapshotReader reader = new SnapshotReader(file)) {
+            assertEquals(config.toValues(), reader.getConfig().toValues(), "Header should hold the config");
+            for (int epoch = 0; epoch < states.size(); epoch++) {
+                assertTrue(reader.next(), "Snapshot should have epoch " + epoch);
+                assertEquals(epoch, reader.getEpoch());
+                assertEquals(states.get(epoch), describe(reader), "State after epoch " + epoch);
+            }
+            assertFalse(reader.next(), "Snapshot should end after the last epoch");
+        }
+    }
+
+    @Test
+    void testUnchangedEpochsTakeFewBytes() throws IOException {
+        WorldConfig config = new WorldConfig.Builder().seed(3).build();
+        GrassField map = new GrassField(20, 20, 0, List.of(), config.getStorageVariant());
+        for (int x = 0; x <= 20; x++) {
+            map.addGrass(new Grass(new Vector2d(x, x)));
+        }
+        Path file = tempDir.resolve("still.bin");
+        SnapshotWriter writer = new SnapshotWriter(file, config);
+        writer.write(0, map);
+        long first = writer.getBytesWritten();
+        writer.write(1, map);
+        long second = writer.getBytesWritten() - first;
+        writer.close();
+
+        assertTrue(second < 16, "An epoch without changes should take a few bytes, took " + second);
+        try (SnapshotReader reader = new SnapshotReader(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertEquals(21, reader.getGrassCells().cardinality(), "Grass should be kept from the first frame");
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("other.bin");
+        Files.writeString(file, "not a snapshot at all");
+        assertThrows(IOException.class, () -> new SnapshotReader(file));
+    }
+}
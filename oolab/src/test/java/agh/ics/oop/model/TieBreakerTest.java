@@ -0,0 +1,87 @@
+package agh.ics.oop.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieBreakerTest {
+    private WorldConfig config;
+    private TieBreaker tieBreaker;
+
+    @BeforeEach
+    void setUp() {
+        config = new WorldConfig.Builder().build();
+        tieBreaker = new TieBreaker(new SplittableRandom(3));
+    }
+
+    private Animal animal(int energy, int children) {
+        Animal animal = new Animal(new Vector2d(0, 0), MapDirection.NORTH, config, Genome.fromGenes(config, new int[0]), null);
+        animal.setEnergy(energy);
+        animal.setChildrenCount(children);
+        return animal;
+    }
+
+    @Test
+    void testOrdersByEnergyThenChildren() {
+        Animal weak = animal(10, 5);
+        Animal strong = animal(30, 0);
+        Animal parent = animal(20, 3);
+        Animal childless = animal(20, 1);
+        tieBreaker.selectTopTwo(List.of(weak, childless, strong, parent));
+
+        assertSame(strong, tieBreaker.getFirst(), "Most energy should win");
+        assertSame(parent, tieBreaker.getSecond(), "With equal energy more children should win");
+    }
+
+    @Test
+    void testSingleAnimalHasNoSecond() {
+        Animal only = animal(10, 0);
+        tieBreaker.selectTopTwo(List.of(only));
+        assertSame(only, tieBreaker.getFirst());
+        assertNull(tieBreaker.getSecond());
+
+        tieBreaker.selectTopTwo(List.of());
+        assertNull(tieBreaker.getFirst(), "Selection should be cleared for an empty field");
+    }
+
+    @Test
+    void testMatchesSortedOrder() {
+        SplittableRandom random = new SplittableRandom(11);
+        Comparator<Animal> strength = Comparator.comparingInt(Animal::getEnergy)
+                .thenComparingInt(Animal::getChildren)
+                .reversed();
+        for (int n = 0; n < 200; n++) {
+            List<Animal> animals = new ArrayList<>();
+            for (int i = 0; i < 2 + random.nextInt(10); i++) {
+                animals.add(animal(random.nextInt(5), random.nextInt(3)));
+            }
+            tieBreaker.selectTopTwo(animals);
+
+            List<Animal> sorted = new ArrayList<>(animals);
+            sorted.sort(strength);
+            assertEquals(0, strength.compare(sorted.get(0), tieBreaker.getFirst()), "First should be the strongest");
+            assertEquals(0, strength.compare(sorted.get(1), tieBreaker.getSecond()), "Second should be the next strongest");
+            assertNotSame(tieBreaker.getFirst(), tieBreaker.getSecond());
+        }
+    }
+
+    @Test
+    void testTiesAreBrokenEvenly() {
+        List<Animal> animals = List.of(animal(10, 0), animal(10, 0), animal(10, 0));
+        int[] wins = new int[animals.size()];
+        int rounds = 3000;
+        for (int n = 0; n < rounds; n++) {
+            tieBreaker.selectTopTwo(animals);
+            wins[animals.indexOf(tieBreaker.getFirst())]++;
+        }
+        for (int win : wins) {
+            assertTrue(Math.abs(win - rounds / 3) < rounds / 10, "Every tied animal should win about as often, got " + win);
+        }
+    }
+}
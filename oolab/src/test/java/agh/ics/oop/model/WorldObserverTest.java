@@ -0,0 +1,122 @@
+package agh.ics.oop.model;
+
+import agh.ics.oop.model.variants.EMapVariant;
+import agh.ics.oop.model.variants.EStorageVariant;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldObserverTest {
+
+    private double round2(double value) {
+        return (double) Math.round(value * 100) / 100;
+    }
+
+    private void assertMatchesFullScan(AbstractWorldMap map, int epoch) {
+        Map<String, Object> stats = map.wObserver.getStats();
+        List<Animal> animals = map.getAllAnimals();
+        List<Animal> dead = map.getDeadAnimals();
+
+        assertEquals(animals.size(), stats.get("Total Animals"), "Animal count in epoch " + epoch);
+        assertEquals(map.getGrass().size(), stats.get("Total Grass"), "Grass count in epoch " + epoch);
+        assertEquals(round2(animals.stream().mapToInt(Animal::getEnergy).average().orElse(0)),
+                stats.get("Average Energy"), "Average energy in epoch " + epoch);
+        assertEquals(round2(dead.stream().mapToInt(Animal::getLifespan).average().orElse(0)),
+                stats.get("Average Lifespan"), "Average lifespan in epoch " + epoch);
+        assertEquals(round2(dead.stream().mapToInt(Animal::getChildren).average().orElse(0)),
+                stats.get("Average Children"), "Average children in epoch " + epoch);
+
+        Map<Genome, Integer> genomeCounts = new HashMap<>();
+        animals.forEach(animal -> genomeCounts.merge(animal.getGenome(), 1, Integer::sum));
+        Genome dominant = map.wObserver.findDominantGenome();
+        if (animals.isEmpty()) {
+            assertNull(dominant, "There is no dominant genome without animals");
+        } else {
+            int maxCount = genomeCounts.values().stream().max(Integer::compare).orElseThrow();
+            assertEquals(maxCount, (int) genomeCounts.get(dominant), "Dominant genome should be the most frequent one");
+        }
+    }
+
+    private void runAndCompare(EMapVariant mapVariant, int threads) {
+        WorldConfig config = new WorldConfig.Builder()
+                .mapVariant(mapVariant)
+                .fireMaxAge(2)
+                .fireFreq(3)
+                .epochThreads(threads)
+                .build();
+        AbstractWorldMap map = new MapBuilder().createMap(config, List.of());
+        SimulationHelper helper = new SimulationHelper(map, config);
+        helper.generateStartingPositions(config.getInitialAnimalCount());
+
+        for (int epoch = 1; epoch <= 60 && !map.getAllAnimals().isEmpty(); epoch++) {
+            helper.runEpoch();
+            assertMatchesFullScan(map, epoch);
+        }
+        helper.close();
+    }
+
+    @Test
+    void testStatsMatchFullScanOnStandardMap() {
+        runAndCompare(EMapVariant.STANDARD, 1);
+    }
+
+    @Test
+    void testStatsMatchFullScanOnFireMap() {
+        runAndCompare(EMapVariant.FIRE, 1);
+    }
+
+    @Test
+    void testStatsMatchFullScanInParallelEpoch() {
+        runAndCompare(EMapVariant.STANDARD, 4);
+    }
+
+    @Test
+    void testObserverCountsAnimalsPlacedBeforeIt() throws Exception {
+        WorldConfig config = new WorldConfig.Builder().build();
+        GrassField map = new GrassField(5, 5, 0, List.of(), EStorageVariant.HASH);
+        Animal animal = new Animal(new Vector2d(1, 1), config, map);
+        map.place(animal);
+        map.wObserver = new WorldObserver(map);
+
+        animal.eatGrass();
+        map.wObserver.update();
+
+        assertEquals(1, map.wObserver.getStats().get("Total Animals"));
+        assertEquals((double) config.getInitialAnimalEnergy() + config.getPlantEnergy(),
+                map.wObserver.getStats().get("Average Energy"), "Energy change should be reported to the observer");
+        assertSame(animal.getGenome(), map.wObserver.findDominantGenome());
+    }
+
+    @Test
+    void testFrequencyTableTracksMostFrequentKey() {
+        FrequencyTable<String> table = new FrequencyTable<>();
+        table.add("a");
+        table.add("b");
+        table.add("b");
+        assertEquals("b", table.mostFrequent());
+
+        table.remove("b");
+        table.remove("b");
+        assertEquals("a", table.mostFrequent());
+        assertEquals(0, table.count("b"));
+
+        table.add("c");
+        table.add("c");
+        table.add("c");
+        table.add("a");
+        assertEquals(List.of("c", "a"), table.mostFrequent(2), "Keys should be ordered by count");
+        assertEquals(List.of("c"), table.mostFrequent(1));
+
+        table.remove("a");
+        table.remove("a");
+        table.remove("c");
+        table.remove("c");
+        table.remove("c");
+        assertNull(table.mostFrequent(), "Empty table has no most frequent key");
+        assertEquals(0, table.getMaxCount());
+    }
+}